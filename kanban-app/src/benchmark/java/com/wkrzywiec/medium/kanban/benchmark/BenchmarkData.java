@@ -0,0 +1,46 @@
+package com.wkrzywiec.medium.kanban.benchmark;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+
+import java.util.ArrayList;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Kanban kanbanWithTasks(long id, int taskCount) {
+        Kanban kanban = new Kanban();
+        kanban.setId(id);
+        kanban.setTitle("Benchmark Kanban " + id);
+        kanban.setTasks(new ArrayList<>(taskCount));
+        for (int i = 0; i < taskCount; i++) {
+            Task task = task("Benchmark Task " + i);
+            task.setId(id * 1_000_000L + i);
+            task.setKanbanId(id);
+            kanban.getTasks().add(task);
+        }
+        return kanban;
+    }
+
+    static Task task(String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription("Description of " + title);
+        task.setColor("#FFD700");
+        task.setStatus(TaskStatus.values()[title.length() % TaskStatus.values().length]);
+        return task;
+    }
+
+    static TaskDTO taskDTO(String title) {
+        return TaskDTO.builder()
+                .title(title)
+                .description("Description of " + title)
+                .color("#00BFFF")
+                .status(TaskStatus.INPROGRESS)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.wkrzywiec.medium.kanban.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round trip of a whole board, as done by GET and PUT /kanbans/{id}.
+ * Uses the same ObjectMapper defaults as the Spring MVC message converter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int taskCount;
+
+    ObjectMapper objectMapper;
+    Kanban kanban;
+    byte[] kanbanJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        kanban = BenchmarkData.kanbanWithTasks(1L, taskCount);
+        kanbanJson = objectMapper.writeValueAsBytes(kanban);
+    }
+
+    @Benchmark
+    public byte[] serializeKanban() throws IOException {
+        return objectMapper.writeValueAsBytes(kanban);
+    }
+
+    @Benchmark
+    public Kanban deserializeKanban() throws IOException {
+        return objectMapper.readValue(kanbanJson, Kanban.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.wkrzywiec.medium.kanban.benchmark;
+
+import com.wkrzywiec.medium.kanban.config.ReactiveConfig;
+import com.wkrzywiec.medium.kanban.config.ShardingConfig;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.service.KanbanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository and service round trips against an in-memory H2 database,
+ * with the schema created by the Liquibase changelog. Only the repository
+ * and service layers are started, with the configurations providing beans
+ * the services depend on; web and test configurations are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"10", "1000"})
+    int taskCount;
+
+    ConfigurableApplicationContext context;
+    KanbanService kanbanService;
+    TaskRepository taskRepository;
+    Long kanbanId;
+    String taskTitle;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PersistenceLayer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--kanban.cache.enabled=false");
+        kanbanService = context.getBean(KanbanService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+
+        Kanban kanban = BenchmarkData.kanbanWithTasks(1L, taskCount);
+        kanban.setId(null);
+        kanban.getTasks().forEach(task -> task.setId(null));
+        kanbanId = context.getBean(KanbanRepository.class).save(kanban).getId();
+        taskTitle = kanban.getTasks().get(taskCount / 2).getTitle();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Kanban> getKanbanWithTasks() {
+        return kanbanService.getKanbanById(kanbanId);
+    }
+
+    @Benchmark
+    public Optional<Task> findTaskByTitle() {
+        return taskRepository.findByTitle(taskTitle);
+    }
+
+    @Benchmark
+    public Task saveAndDeleteTask() {
+        Task task = taskRepository.save(BenchmarkData.task("Round Trip Task"));
+        taskRepository.delete(task);
+        return task;
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Kanban.class)
+    @EnableJpaRepositories(basePackageClasses = KanbanRepository.class)
+    @ComponentScan(basePackageClasses = { KanbanRepository.class, KanbanService.class })
+    @Import({ ReactiveConfig.class, ShardingConfig.class })
+    static class PersistenceLayer {
+    }
+}
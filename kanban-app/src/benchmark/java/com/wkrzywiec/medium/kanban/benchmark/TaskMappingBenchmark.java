@@ -0,0 +1,65 @@
+package com.wkrzywiec.medium.kanban.benchmark;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
+import com.wkrzywiec.medium.kanban.service.TaskFlowService;
+import com.wkrzywiec.medium.kanban.service.TaskPositionRebalancer;
+import com.wkrzywiec.medium.kanban.service.TaskService;
+import com.wkrzywiec.medium.kanban.service.TaskServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * DTO to entity mapping of TaskServiceImpl, reached through saveNewTask
+ * and updateTask. All collaborators are stub-only mocks, which don't record
+ * invocations, and the repository returns the saved task, so only mapping
+ * and service overhead is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMappingBenchmark {
+
+    TaskService taskService;
+    TaskDTO taskDTO;
+    Task task;
+
+    @Setup
+    public void setUp() {
+        TaskRepository taskRepository = stub(TaskRepository.class);
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        taskService = new TaskServiceImpl(taskRepository, stub(KanbanRepository.class), stub(TaskTombstoneRepository.class),
+                stub(EntityCacheEvictor.class), stub(ApplicationEventPublisher.class), stub(TaskPositionRebalancer.class),
+                stub(TaskFlowService.class));
+        taskDTO = BenchmarkData.taskDTO("Benchmark Task");
+        task = BenchmarkData.task("Existing Task");
+    }
+
+    @Benchmark
+    public Task convertDTOToTask() {
+        return taskService.saveNewTask(taskDTO);
+    }
+
+    @Benchmark
+    public Task updateTaskFromDTO() {
+        return taskService.updateTask(task, taskDTO);
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
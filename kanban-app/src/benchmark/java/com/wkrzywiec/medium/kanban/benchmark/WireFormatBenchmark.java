@@ -0,0 +1,81 @@
+package com.wkrzywiec.medium.kanban.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of a large board response in each supported wire format, with
+ * and without gzip as done by Tomcat for clients accepting it. The number
+ * of bytes on the wire of each combination is printed when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"1000", "10000"})
+    int taskCount;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"false", "true"})
+    boolean gzip;
+
+    ObjectMapper objectMapper;
+    Kanban kanban;
+    byte[] kanbanBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = objectMapper(format);
+        kanban = BenchmarkData.kanbanWithTasks(1L, taskCount);
+        kanbanBytes = serializeKanban();
+        System.out.printf("%n%s%s, %d tasks: %d bytes%n", format, gzip ? "+gzip" : "", taskCount, kanbanBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeKanban() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(bytes)) {
+                objectMapper.writeValue(gzipStream, kanban);
+            }
+        } else {
+            objectMapper.writeValue(bytes, kanban);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Kanban deserializeKanban() throws IOException {
+        InputStream bytes = new ByteArrayInputStream(kanbanBytes);
+        try (InputStream body = gzip ? new GZIPInputStream(bytes) : bytes) {
+            return objectMapper.readValue(body, Kanban.class);
+        }
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        switch (format) {
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
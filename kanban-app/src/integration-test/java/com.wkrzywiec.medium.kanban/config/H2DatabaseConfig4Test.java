@@ -1,7 +1,9 @@
 package com.wkrzywiec.medium.kanban.config;
 
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
 import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -18,11 +20,14 @@ import javax.sql.DataSource;
 @EnableJpaRepositories( basePackageClasses = KanbanRepository.class )
 public class H2DatabaseConfig4Test {
 
+    @Value("${kanban.test.h2.url:jdbc:h2:mem:db;DB_CLOSE_DELAY=-1}")
+    private String url;
+
     @Bean
     public DataSource dataSource() {
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
         dataSource.setDriverClassName("org.h2.Driver");
-        dataSource.setUrl("jdbc:h2:mem:db;DB_CLOSE_DELAY=-1");
+        dataSource.setUrl(url);
 
         return dataSource;
     }
@@ -41,6 +46,11 @@ public class H2DatabaseConfig4Test {
         return factory.getObject();
     }
 
+    @Bean
+    public EntityCacheEvictor entityCacheEvictor() {
+        return new EntityCacheEvictor( entityManagerFactory() );
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager() {
         JpaTransactionManager txManager = new JpaTransactionManager();
@@ -0,0 +1,45 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.SqlStatistics;
+
+/**
+ * Fails a test when a call runs more SQL statements than expected, e.g.
+ * after a change that loads a collection one query per element (N+1).
+ * Only statements run on the calling thread are counted.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStatistics assertStatementCount(int expected, Runnable action) {
+        SqlStatistics statistics = SqlStatistics.of(action);
+        if (statistics.getStatements() != expected) {
+            throw new AssertionError(String.format("Expected %d SQL statements, but %d were run: %s",
+                    expected, statistics.getStatements(), statistics));
+        }
+        return statistics;
+    }
+
+    public static SqlStatistics assertMaxStatementCount(int max, Runnable action) {
+        SqlStatistics statistics = SqlStatistics.of(action);
+        if (statistics.getStatements() > max) {
+            throw new AssertionError(String.format("Expected at most %d SQL statements, but %d were run: %s",
+                    max, statistics.getStatements(), statistics));
+        }
+        return statistics;
+    }
+
+    /**
+     * Checks that two calls, usually the same one on a small and a large
+     * data set, run the same number of SQL statements.
+     */
+    public static void assertSameStatementCount(Runnable small, Runnable large) {
+        SqlStatistics smallStatistics = SqlStatistics.of(small);
+        SqlStatistics largeStatistics = SqlStatistics.of(large);
+        if (smallStatistics.getStatements() != largeStatistics.getStatements()) {
+            throw new AssertionError(String.format("Expected the same number of SQL statements, but %d and %d were run",
+                    smallStatistics.getStatements(), largeStatistics.getStatements()));
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @TestPropertySource( properties = {
@@ -69,6 +70,17 @@ public class CommonITCase {
         return kanbanRepository.save(kanban);
     }
 
+    protected List<Long> saveTasksInKanban(Long kanbanId, TaskStatus... statuses){
+        List<Task> tasks = new ArrayList<>();
+        for (TaskStatus status : statuses) {
+            Task task = createSingleTask();
+            task.setStatus(status);
+            task.setPosition((tasks.size() + 1) * Task.POSITION_GAP);
+            tasks.add(task);
+        }
+        return taskRepository.insertAll(kanbanId, tasks);
+    }
+
     protected Task saveSingleTask(){
         return taskRepository.save(createSingleTask());
     }
@@ -0,0 +1,152 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.model.CumulativeFlowDay;
+import com.wkrzywiec.medium.kanban.model.CycleTimeDay;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.model.ThroughputDay;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class FlowReportITCase extends CommonITCase {
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setUp(){
+        baseURL = "http://localhost:" + port + "/api/";
+    }
+
+    @Test
+    public void whenTaskMovedThroughColumns_thenReportsShowItsFlowToday(){
+
+        //given
+        Kanban kanban = createKanban();
+        Task task = createTask(kanban.getId(), TaskStatus.TODO);
+        createTask(kanban.getId(), TaskStatus.TODO);
+
+        //when
+        updateTaskStatus(task.getId(), TaskStatus.INPROGRESS);
+        updateTaskStatus(task.getId(), TaskStatus.DONE);
+
+        //then
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<CumulativeFlowDay> cumulativeFlow = getReport(kanban.getId(), "cumulative-flow",
+                new ParameterizedTypeReference<List<CumulativeFlowDay>>() {}).getBody();
+        assertEquals(30, cumulativeFlow.size());
+        assertEquals(new CumulativeFlowDay(today.minusDays(29), 0, 0, 0), cumulativeFlow.get(0));
+        assertEquals(new CumulativeFlowDay(today, 1, 0, 1), cumulativeFlow.get(29));
+
+        List<ThroughputDay> throughput = getReport(kanban.getId(), "throughput",
+                new ParameterizedTypeReference<List<ThroughputDay>>() {}).getBody();
+        assertEquals(new ThroughputDay(today, 1), throughput.get(29));
+
+        List<CycleTimeDay> cycleTime = getReport(kanban.getId(), "cycle-time",
+                new ParameterizedTypeReference<List<CycleTimeDay>>() {}).getBody();
+        assertEquals(1, cycleTime.get(29).getCompleted());
+        assertEquals(cycleTime.get(29).getAverageSeconds(), cycleTime.get(29).getMaxSeconds());
+    }
+
+    @Test
+    public void whenTasksMovedToOtherKanban_thenTheyLeaveSourceKanbanFlow(){
+
+        //given
+        Kanban source = createKanban();
+        Kanban target = createKanban();
+        Task task = createTask(source.getId(), TaskStatus.INPROGRESS);
+
+        //when
+        TaskMoveDTO taskMoveDTO = TaskMoveDTO.builder().kanbanId(target.getId()).taskIds(Collections.singletonList(task.getId())).build();
+        this.restTemplate.postForEntity(baseURL + "tasks/move", taskMoveDTO, String.class);
+
+        //then
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<CumulativeFlowDay> sourceFlow = getReport(source.getId(), "cumulative-flow?from=" + today,
+                new ParameterizedTypeReference<List<CumulativeFlowDay>>() {}).getBody();
+        List<CumulativeFlowDay> targetFlow = getReport(target.getId(), "cumulative-flow?from=" + today,
+                new ParameterizedTypeReference<List<CumulativeFlowDay>>() {}).getBody();
+        assertEquals(Collections.singletonList(new CumulativeFlowDay(today, 0, 0, 0)), sourceFlow);
+        assertEquals(Collections.singletonList(new CumulativeFlowDay(today, 0, 1, 0)), targetFlow);
+    }
+
+    @Test
+    public void whenReportOfNotExistingKanbanRequested_thenReceiveNotFound(){
+
+        //when
+        ResponseEntity<String> response = getReport(999_999L, "throughput", new ParameterizedTypeReference<String>() {});
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenReportStartsAfterItEnds_thenReceiveBadRequest(){
+
+        //given
+        Kanban kanban = createKanban();
+
+        //when
+        ResponseEntity<String> response = getReport(kanban.getId(), "cycle-time?from=2026-03-02&to=2026-03-01",
+                new ParameterizedTypeReference<String>() {});
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private Kanban createKanban(){
+        return this.restTemplate.postForEntity(baseURL + "kanbans/", convertKanbanToDTO(createSingleKanban()), Kanban.class).getBody();
+    }
+
+    private Task createTask(Long kanbanId, TaskStatus status){
+        Task task = createSingleTask();
+        task.setStatus(status);
+        return this.restTemplate.postForEntity(baseURL + "kanbans/" + kanbanId + "/tasks/", convertTaskToDTO(task), Task.class).getBody();
+    }
+
+    private void updateTaskStatus(Long taskId, TaskStatus status){
+        TaskDTO taskDTO = TaskDTO.builder().status(status).build();
+        ResponseEntity<Task> response = this.restTemplate.exchange(
+                baseURL + "tasks/" + taskId,
+                HttpMethod.PUT,
+                new HttpEntity<>(taskDTO),
+                Task.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private <T> ResponseEntity<T> getReport(Long kanbanId, String report, ParameterizedTypeReference<T> type){
+        return this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanbanId + "/reports/" + report,
+                HttpMethod.GET,
+                null,
+                type);
+    }
+}
@@ -0,0 +1,185 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.repository.CacheInvalidation;
+import com.wkrzywiec.medium.kanban.repository.CacheInvalidationBus;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "kanban.cache.enabled=true",
+        "kanban.cache.invalidation.transport=in-process"
+})
+public class KanbanCacheITCase extends CommonITCase {
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp(){
+        baseURL = "http://localhost:" + port + "/api/";
+    }
+
+    @Test
+    public void whenGetSingleKanbanTwice_thenSecondReadIsServedFromCache(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        getKanban(kanban.getId());
+        double hitsBefore = cacheHits();
+
+        //when
+        ResponseEntity<Kanban> response = getKanban(kanban.getId());
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getTasks().size());
+        assertTrue(cacheHits() > hitsBefore);
+        assertNotNull(meterRegistry.find("cache.evictions")
+                .tag("cache", "com.wkrzywiec.medium.kanban.model.Kanban")
+                .functionCounter());
+    }
+
+    @Test
+    public void whenTaskAddedToOtherKanban_thenCachedKanbanIsStillServedFromCache(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        Kanban otherKanban = saveSingleKanbanWithOneTask();
+        getKanban(kanban.getId());
+        double hitsBefore = kanbanCacheHits();
+
+        //when
+        this.restTemplate.postForEntity(baseURL + "kanbans/" + otherKanban.getId() + "/tasks/",
+                convertTaskToDTO(createSingleTask()), Task.class);
+
+        //then
+        ResponseEntity<Kanban> response = getKanban(kanban.getId());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getTasks().size());
+        assertTrue(kanbanCacheHits() > hitsBefore);
+    }
+
+    @Test
+    public void whenBatchOfTasksAddedToCachedKanban_thenNextReadContainsNewTasks(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        getKanban(kanban.getId());
+
+        //when
+        this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(Collections.singletonList(convertTaskToDTO(createSingleTask())), new HttpHeaders()),
+                new ParameterizedTypeReference<List<Long>>() {});
+
+        //then
+        assertEquals(2, getKanban(kanban.getId()).getBody().getTasks().size());
+    }
+
+    @Test
+    public void whenTaskOfCachedKanbanDeleted_thenNextReadDoesNotContainIt(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        Task task = getKanban(kanban.getId()).getBody().getTasks().get(0);
+
+        //when
+        this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.DELETE,
+                new HttpEntity<>(new HttpHeaders()),
+                String.class);
+
+        //then
+        ResponseEntity<Kanban> response = getKanban(kanban.getId());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, response.getBody().getTasks().size());
+    }
+
+    @Test
+    public void whenKanbanInvalidatedByOtherInstance_thenNextReadIsNotServedFromCache(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        getKanban(kanban.getId());
+        jdbcTemplate.update("UPDATE kanban SET title = ? WHERE id = ?", "Changed by other instance", kanban.getId());
+        assertEquals(kanban.getTitle(), getKanban(kanban.getId()).getBody().getTitle());
+
+        //when
+        CacheInvalidation invalidation = new CacheInvalidation("other-instance");
+        invalidation.getKanbanIds().add(kanban.getId());
+        invalidation.setPublishedAt(System.currentTimeMillis());
+        cacheInvalidationBus.publish(invalidation);
+
+        //then
+        assertEquals("Changed by other instance", getKanban(kanban.getId()).getBody().getTitle());
+        assertTrue(meterRegistry.get(EntityCacheEvictor.INVALIDATION_LAG_TIMER).timer().count() > 0);
+    }
+
+    private ResponseEntity<Kanban> getKanban(Long id) {
+        return this.restTemplate.exchange(
+                baseURL + "kanbans/" + id,
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                Kanban.class);
+    }
+
+    private double cacheHits() {
+        return meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("result", "hit")
+                .functionCounters()
+                .stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private double kanbanCacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", Kanban.class.getName())
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
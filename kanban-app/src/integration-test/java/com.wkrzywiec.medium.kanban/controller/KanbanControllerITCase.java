@@ -1,7 +1,15 @@
 package com.wkrzywiec.medium.kanban.controller;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanChanges;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
 import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.model.TaskStatusUpdateDTO;
+import com.wkrzywiec.medium.kanban.service.KanbanEventService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,15 +22,28 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 
 @RunWith(SpringRunner.class)
@@ -39,7 +60,7 @@ public class KanbanControllerITCase extends CommonITCase {
 
     @Before
     public void setUp(){
-        baseURL = "http://localhost:" + port;
+        baseURL = "http://localhost:" + port + "/api/";
     }
 
     @Test
@@ -60,6 +81,60 @@ public class KanbanControllerITCase extends CommonITCase {
         assertTrue(response.getBody().size() >= 1);
     }
 
+    @Test
+    public void whenGetKanbansPageByPage_thenReceiveEachKanbanOnce(){
+
+        //given
+        Kanban first = saveSingleRandomKanban();
+        Kanban second = saveSingleRandomKanban();
+
+        //when
+        ResponseEntity<List<Kanban>> firstPage = this.restTemplate.exchange(
+                baseURL + "kanbans/?limit=1&after=" + CursorPage.encodeCursor(first.getId() - 1),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                new ParameterizedTypeReference<List<Kanban>>() {});
+
+        ResponseEntity<List<Kanban>> secondPage = this.restTemplate.exchange(
+                baseURL + "kanbans/?limit=1&after=" + firstPage.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                new ParameterizedTypeReference<List<Kanban>>() {});
+
+        //then
+        assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        assertEquals(1, firstPage.getBody().size());
+        assertEquals(first.getId(), firstPage.getBody().get(0).getId());
+        assertEquals(HttpStatus.OK, secondPage.getStatusCode());
+        assertEquals(1, secondPage.getBody().size());
+        assertEquals(second.getId(), secondPage.getBody().get(0).getId());
+    }
+
+    @Test
+    public void whenGetKanbanSummaries_thenReceiveTaskCountsPerKanban(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+
+        //when
+        ResponseEntity<List<KanbanSummary>> response = this.restTemplate.exchange(
+                baseURL + "kanbans/summary",
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                new ParameterizedTypeReference<List<KanbanSummary>>() {});
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        KanbanSummary summary = response.getBody().stream()
+                .filter(s -> s.getId().equals(kanban.getId()))
+                .findFirst()
+                .get();
+        assertEquals(kanban.getTitle(), summary.getTitle());
+        assertEquals(1, summary.getTodoCount());
+        assertEquals(0, summary.getInProgressCount());
+        assertEquals(0, summary.getDoneCount());
+    }
+
     @Test
     public void whenGetSingleKanbanById_thenReceiveSingleKanban(){
 
@@ -79,6 +154,107 @@ public class KanbanControllerITCase extends CommonITCase {
         assertEquals(kanban.getTitle(), response.getBody().getTitle());
     }
 
+    @Test
+    public void whenGetSingleKanbanWithMatchingIfNoneMatch_thenReceiveNotModified(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        String etag = getKanban(kanban.getId(), new HttpHeaders()).getHeaders().getETag();
+
+        //when
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<Kanban> response = getKanban(kanban.getId(), headers);
+
+        //then
+        assertNotNull(etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void whenTaskOfKanbanIsUpdated_thenKanbanETagChanges(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        ResponseEntity<Kanban> before = getKanban(kanban.getId(), new HttpHeaders());
+        Task task = before.getBody().getTasks().get(0);
+
+        //when
+        this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(TaskDTO.builder().status(TaskStatus.DONE).build(), new HttpHeaders()),
+                Task.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(before.getHeaders().getETag());
+        ResponseEntity<Kanban> after = getKanban(kanban.getId(), headers);
+
+        //then
+        assertEquals(HttpStatus.OK, after.getStatusCode());
+        assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+        assertEquals(TaskStatus.DONE, after.getBody().getTasks().get(0).getStatus());
+    }
+
+    @Test
+    public void whenPutSingleKanbanWithStaleIfMatch_thenReceivePreconditionFailed(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("\"" + (kanban.getVersion() + 1) + "\"");
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(convertKanbanToDTO(createSingleKanban()), headers),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals(kanban.getTitle(), findKanbanInDbById(kanban.getId()).get().getTitle());
+    }
+
+    @Test
+    public void whenTasksChangedSinceRevision_thenReceiveOnlyChangedTasksAndTombstones(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(Arrays.asList(convertTaskToDTO(createSingleTask()), convertTaskToDTO(createSingleTask())), new HttpHeaders()),
+                new ParameterizedTypeReference<List<Long>>() {});
+        KanbanChanges initial = getKanbanChanges(kanban.getId(), null);
+        Task updatedTask = initial.getTasks().get(0);
+        Task deletedTask = initial.getTasks().get(1);
+
+        //when
+        this.restTemplate.exchange(
+                baseURL + "tasks/" + updatedTask.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(TaskDTO.builder().status(TaskStatus.INPROGRESS).build(), new HttpHeaders()),
+                Task.class);
+        this.restTemplate.exchange(
+                baseURL + "tasks/" + deletedTask.getId(),
+                HttpMethod.DELETE,
+                new HttpEntity<>(new HttpHeaders()),
+                String.class);
+        KanbanChanges changes = getKanbanChanges(kanban.getId(), initial.getRevision());
+
+        //then
+        assertEquals(3, initial.getTasks().size());
+        assertEquals(1, changes.getTasks().size());
+        assertEquals(updatedTask.getId(), changes.getTasks().get(0).getId());
+        assertEquals(TaskStatus.INPROGRESS, changes.getTasks().get(0).getStatus());
+        assertEquals(1, changes.getDeletedTasks().size());
+        assertEquals(deletedTask.getId(), changes.getDeletedTasks().get(0).getTaskId());
+        assertEquals(Long.valueOf(initial.getRevision() + 2), changes.getRevision());
+        assertEquals(0, getKanbanChanges(kanban.getId(), changes.getRevision()).getTasks().size());
+    }
+
     @Test
     public void whenGetAllTasksForKanbanById_thenReceiveTasksList(){
 
@@ -146,7 +322,46 @@ public class KanbanControllerITCase extends CommonITCase {
     }
 
     @Test
-    public void whenPostSingleTaskToAlreadyCreatedKanban_thenItIsStoredInDbAndAssignedToKanban(){
+    public void whenPostSingleTaskToAlreadyCreatedKanban_thenReceiveOnlyCreatedTask(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        Task task = createSingleTask();
+
+        //when
+        ResponseEntity<Task> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/",
+                HttpMethod.POST,
+                new HttpEntity<>(convertTaskToDTO(task), new HttpHeaders()),
+                Task.class);
+
+        //then
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Task responseTask = response.getBody();
+        assertNotNull(responseTask.getId());
+        assertEquals(kanban.getId(), responseTask.getKanbanId());
+        assertEquals(task.getTitle(), responseTask.getTitle());
+        assertEquals("\"" + responseTask.getVersion() + "\"", response.getHeaders().getETag());
+        assertEquals(kanban.getId(), findTaskInDbById(responseTask.getId()).get().getKanbanId());
+        assertEquals(2, findKanbanInDbById(kanban.getId()).get().getTasks().size());
+    }
+
+    @Test
+    public void whenPostSingleTaskToNotExistingKanban_thenReceiveNotFound(){
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + Long.MAX_VALUE + "/tasks/",
+                HttpMethod.POST,
+                new HttpEntity<>(convertTaskToDTO(createSingleTask()), new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenPostSingleTaskToAlreadyCreatedKanbanForFullKanban_thenItIsStoredInDbAndAssignedToKanban(){
 
         //given
         Kanban kanban = saveSingleRandomKanban();
@@ -154,7 +369,7 @@ public class KanbanControllerITCase extends CommonITCase {
 
         //when
         ResponseEntity<Kanban> response = this.restTemplate.exchange(
-                baseURL + "kanbans/" + kanban.getId() + "/tasks/",
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/?fullKanban=true",
                 HttpMethod.POST,
                 new HttpEntity<>(convertTaskToDTO(task), new HttpHeaders()),
                 Kanban.class);
@@ -186,6 +401,150 @@ public class KanbanControllerITCase extends CommonITCase {
     }
 
 
+    @Test
+    public void whenPostBatchOfTasksToAlreadyCreatedKanban_thenAllAreStoredInDbAndAssignedToKanban(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<TaskDTO> taskDTOs = Arrays.asList(
+                convertTaskToDTO(createSingleTask()),
+                convertTaskToDTO(createSingleTask()),
+                convertTaskToDTO(createSingleTask()));
+
+        //when
+        ResponseEntity<List<Long>> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(taskDTOs, new HttpHeaders()),
+                new ParameterizedTypeReference<List<Long>>() {});
+
+        //then
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(3, response.getBody().size());
+
+        for (int i = 0; i < taskDTOs.size(); i++) {
+            Task savedTask = findTaskInDbById(response.getBody().get(i)).get();
+            assertEquals(taskDTOs.get(i).getTitle(), savedTask.getTitle());
+            assertEquals(taskDTOs.get(i).getDescription(), savedTask.getDescription());
+            assertEquals(taskDTOs.get(i).getStatus(), savedTask.getStatus());
+            assertEquals(kanban.getId(), savedTask.getKanbanId());
+        }
+    }
+
+    @Test
+    public void whenPostBatchOfTasksToNotExistingKanban_thenReceiveNotFound(){
+
+        //given
+        List<TaskDTO> taskDTOs = Arrays.asList(convertTaskToDTO(createSingleTask()));
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + Long.MAX_VALUE + "/tasks/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(taskDTOs, new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenTaskAddedToSubscribedKanban_thenReceiveTaskCreatedEvent() throws IOException {
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        Task task = createSingleTask();
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseURL + "kanbans/" + kanban.getId() + "/events").openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+        connection.setReadTimeout(10000);
+
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            assertTrue(readEvent(events).contains("event:subscribed"));
+
+            //when
+            this.restTemplate.exchange(
+                    baseURL + "kanbans/" + kanban.getId() + "/tasks/",
+                    HttpMethod.POST,
+                    new HttpEntity<>(convertTaskToDTO(task), new HttpHeaders()),
+                    Task.class);
+            List<String> event = readEvent(events);
+
+            //then
+            assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE + ";charset=UTF-8", connection.getContentType());
+            assertEquals("event:TASK_CREATED", event.get(1));
+            assertTrue(event.get(2).contains("\"title\":\"" + task.getTitle() + "\""));
+            assertTrue(getSubscriberCount() >= 1);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void whenSubscribeToNotExistingKanban_thenReceiveNotFound(){
+
+        //given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.TEXT_EVENT_STREAM));
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + Long.MAX_VALUE + "/events",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenPatchTasksStatusFromStatus_thenOnlyTasksInThatStatusAreMoved(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.TODO, TaskStatus.INPROGRESS);
+        TaskStatusUpdateDTO statusUpdateDTO = TaskStatusUpdateDTO.builder()
+                .fromStatus(TaskStatus.TODO)
+                .status(TaskStatus.DONE)
+                .build();
+
+        //when
+        ResponseEntity<BulkUpdateResult> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/status",
+                HttpMethod.PATCH,
+                new HttpEntity<>(statusUpdateDTO, new HttpHeaders()),
+                BulkUpdateResult.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getUpdated());
+        assertEquals("\"" + response.getBody().getRevision() + "\"", response.getHeaders().getETag());
+        Task movedTask = findTaskInDbById(taskIds.get(0)).get();
+        assertEquals(TaskStatus.DONE, movedTask.getStatus());
+        assertEquals(Long.valueOf(1L), movedTask.getVersion());
+        assertEquals(response.getBody().getRevision(), movedTask.getRevision());
+        assertEquals(TaskStatus.DONE, findTaskInDbById(taskIds.get(1)).get().getStatus());
+        assertEquals(TaskStatus.INPROGRESS, findTaskInDbById(taskIds.get(2)).get().getStatus());
+        assertEquals(2, getKanbanChanges(kanban.getId(), response.getBody().getRevision() - 1).getTasks().size());
+    }
+
+    @Test
+    public void whenPatchTasksStatusWithoutTargetStatus_thenReceiveBadRequest(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/status",
+                HttpMethod.PATCH,
+                new HttpEntity<>(new TaskStatusUpdateDTO(), new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     public void whenPutSingleKanban_thenItIsUpdated(){
 
@@ -223,4 +582,37 @@ public class KanbanControllerITCase extends CommonITCase {
         assertEquals(String.format("Kanban with id: %d was deleted", kanban.getId()), response.getBody());
         assertFalse(findKanbanInDbById(kanban.getId()).isPresent());
     }
+
+    private ResponseEntity<Kanban> getKanban(Long id, HttpHeaders headers) {
+        return this.restTemplate.exchange(
+                baseURL + "kanbans/" + id,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                Kanban.class);
+    }
+
+    private List<String> readEvent(BufferedReader events) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = events.readLine()) != null && !(line.isEmpty() && !lines.isEmpty())) {
+            if (!line.isEmpty() && !line.startsWith(":")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private double getSubscriberCount() {
+        Map<?, ?> metric = this.restTemplate.getForObject(
+                baseURL + "actuator/metrics/" + KanbanEventService.CONNECTIONS_GAUGE, Map.class);
+        return ((Number) ((Map<?, ?>) ((List<?>) metric.get("measurements")).get(0)).get("value")).doubleValue();
+    }
+
+    private KanbanChanges getKanbanChanges(Long id, Long since) {
+        return this.restTemplate.exchange(
+                baseURL + "kanbans/" + id + "/changes" + (since == null ? "" : "?since=" + since),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                KanbanChanges.class).getBody();
+    }
 }
@@ -0,0 +1,187 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "kanban.reactive.page-size=2")
+public class ReactiveControllerITCase extends CommonITCase {
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setUp(){
+        baseURL = "http://localhost:" + port + "/api/";
+    }
+
+    @Test
+    public void whenStreamKanbanTasks_thenReceiveOneJsonLinePerTaskAcrossPages() throws IOException {
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.TODO, TaskStatus.DONE,
+                TaskStatus.INPROGRESS, TaskStatus.TODO);
+
+        //when
+        ResponseEntity<String> response = getStream("reactive/kanbans/" + kanban.getId() + "/tasks");
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(taskIds, readTaskIds(response.getBody()));
+    }
+
+    @Test
+    public void whenGetKanbanTasksAsJson_thenReceiveTaskArray() {
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.DONE, TaskStatus.TODO);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+        //when
+        ResponseEntity<List<Task>> response = this.restTemplate.exchange(
+                baseURL + "reactive/kanbans/" + kanban.getId() + "/tasks",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<List<Task>>() {});
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(taskIds, response.getBody().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void whenStreamTasksOfDeletedKanban_thenReceiveNotFound() {
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        this.restTemplate.delete(baseURL + "kanbans/" + kanban.getId());
+
+        //when
+        ResponseEntity<String> response = getStream("reactive/kanbans/" + kanban.getId() + "/tasks");
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenStreamAllTasks_thenReceiveSavedTask() throws IOException {
+
+        //given
+        Task task = saveSingleTask();
+
+        //when
+        ResponseEntity<String> response = getStream("reactive/tasks/");
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, readTaskIds(response.getBody()).stream().filter(task.getId()::equals).count());
+    }
+
+    @Test
+    public void whenGetKanbanById_thenReceiveKanbanWithTasks() {
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+
+        //when
+        ResponseEntity<Kanban> response = this.restTemplate.exchange(
+                baseURL + "reactive/kanbans/" + kanban.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                Kanban.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        assertEquals(kanban.getTitle(), response.getBody().getTitle());
+        assertEquals(1, response.getBody().getTasks().size());
+    }
+
+    @Test
+    public void whenGetNotExistingKanban_thenReceiveNotFound() {
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "reactive/kanbans/" + Long.MAX_VALUE,
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenGetSingleTaskById_thenReceiveSingleTask() {
+
+        //given
+        Task task = saveSingleTask();
+
+        //when
+        ResponseEntity<Task> response = this.restTemplate.exchange(
+                baseURL + "reactive/tasks/" + task.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                Task.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(task.getTitle(), response.getBody().getTitle());
+    }
+
+    private ResponseEntity<String> getStream(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_STREAM_JSON));
+        return this.restTemplate.exchange(baseURL + path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private List<Long> readTaskIds(String body) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.trim().isEmpty()) {
+                ids.add(objectMapper.readValue(line, Task.class).getId());
+            }
+        }
+        return ids;
+    }
+}
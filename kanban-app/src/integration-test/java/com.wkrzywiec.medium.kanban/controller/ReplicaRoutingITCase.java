@@ -0,0 +1,142 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.config.PrimaryRoutingFilter;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.repository.DataSourceRouting;
+import com.wkrzywiec.medium.kanban.repository.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Runs against a primary and a replica in-memory database with the same
+ * schema. Nothing is replicated between them, so reads of data written in
+ * a test show which database they were routed to.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource( properties = {
+        "kanban.datasource.replicas[0].url=" + ReplicaRoutingITCase.REPLICA_URL,
+        "kanban.datasource.replicas[0].username=sa",
+        "kanban.datasource.replicas[0].password="
+})
+public class ReplicaRoutingITCase extends CommonITCase {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() throws Exception {
+        baseURL = "http://localhost:" + port + "/api/";
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        liquibase.setChangeLog("classpath:/db/changelog/db.changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    @Test
+    public void whenKanbanCreated_thenItIsNotReadFromReplica(){
+
+        //given
+        Kanban kanban = createKanban("Primary Kanban").getBody();
+        double replicaConnectionsBefore = replicaConnections();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.getForEntity(baseURL + "kanbans/" + kanban.getId(), String.class);
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertTrue(replicaConnections() > replicaConnectionsBefore);
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+    }
+
+    @Test
+    public void whenKanbanCreated_thenItIsReadFromPrimaryWithCookieSetByWrite(){
+
+        //given
+        ResponseEntity<Kanban> createResponse = createKanban("Primary Kanban");
+        String cookie = createResponse.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertTrue(cookie.startsWith(PrimaryRoutingFilter.PRIMARY_COOKIE + "="));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie.split(";")[0]);
+
+        //when
+        ResponseEntity<Kanban> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + createResponse.getBody().getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                Kanban.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Primary Kanban", response.getBody().getTitle());
+    }
+
+    @Test
+    public void whenKanbanUpdated_thenItIsReadAndWrittenOnPrimary(){
+
+        //given
+        Kanban kanban = createKanban("Primary Kanban").getBody();
+
+        //when
+        ResponseEntity<Kanban> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(KanbanDTO.builder().title("Updated Kanban").build()),
+                Kanban.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Updated Kanban", response.getBody().getTitle());
+        DataSourceRouting.requirePrimary();
+        try {
+            assertEquals("Updated Kanban", findKanbanInDbById(kanban.getId()).get().getTitle());
+        } finally {
+            DataSourceRouting.clear();
+        }
+    }
+
+    private ResponseEntity<Kanban> createKanban(String title) {
+        ResponseEntity<Kanban> response = this.restTemplate.postForEntity(
+                baseURL + "kanbans/",
+                KanbanDTO.builder().title(title).build(),
+                Kanban.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response;
+    }
+
+    private double replicaConnections() {
+        return meterRegistry.find(ReplicaRoutingDataSource.CONNECTIONS_COUNTER).tag("target", "replica-1").counter().count();
+    }
+}
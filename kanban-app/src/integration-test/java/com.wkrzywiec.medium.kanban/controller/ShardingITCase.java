@@ -0,0 +1,185 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Runs against two in-memory databases as shards, which are checked
+ * directly to see where boards and tasks were stored.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource( properties = {
+        "kanban.sharding.max-shards=4",
+        "kanban.sharding.shards[0].url=" + ShardingITCase.SHARD_0_URL,
+        "kanban.sharding.shards[0].username=sa",
+        "kanban.sharding.shards[1].url=" + ShardingITCase.SHARD_1_URL,
+        "kanban.sharding.shards[1].username=sa"
+})
+public class ShardingITCase extends CommonITCase {
+
+    static final String SHARD_0_URL = "jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1_URL = "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1";
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private List<JdbcTemplate> shards;
+
+    @Before
+    public void setUp() {
+        baseURL = "http://localhost:" + port + "/api/";
+        shards = Arrays.asList(
+                new JdbcTemplate(new DriverManagerDataSource(SHARD_0_URL, "sa", "")),
+                new JdbcTemplate(new DriverManagerDataSource(SHARD_1_URL, "sa", "")));
+    }
+
+    @Test
+    public void whenKanbansCreated_thenTheyAreSpreadOverShardsWithIdsOfTheirShard(){
+
+        //when
+        List<Kanban> kanbans = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            kanbans.add(createKanban("Sharded Kanban " + i));
+        }
+
+        //then
+        Set<Integer> usedShards = new HashSet<>();
+        for (Kanban kanban : kanbans) {
+            int shard = shardRouter.shardOf(kanban.getId());
+            usedShards.add(shard);
+            assertEquals(Integer.valueOf(1), countKanbans(shard, kanban.getId()));
+            assertEquals(Integer.valueOf(0), countKanbans(1 - shard, kanban.getId()));
+        }
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), usedShards);
+    }
+
+    @Test
+    public void whenTaskAddedToKanban_thenItIsStoredAndUpdatedOnShardOfKanban(){
+
+        //given
+        Kanban kanban = createKanban("Kanban with task");
+        Task task = this.restTemplate.postForEntity(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/",
+                TaskDTO.builder().title("Sharded Task").status(TaskStatus.TODO).build(),
+                Task.class).getBody();
+
+        //when
+        ResponseEntity<Task> response = this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(TaskDTO.builder().title("Updated Task").build()),
+                Task.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        int shard = shardRouter.shardOf(kanban.getId());
+        assertEquals(shard, shardRouter.shardOf(task.getId()));
+        assertEquals("Updated Task", shards.get(shard).queryForObject(
+                "SELECT title FROM task WHERE id = ? AND kanban_id = ?", String.class, task.getId(), kanban.getId()));
+    }
+
+    @Test
+    public void whenKanbansRequested_thenBoardsOfAllShardsAreMergedInOrderOfIds(){
+
+        //given
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            createdIds.add(createKanban("Paged Kanban " + i).getId());
+        }
+
+        //when
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        do {
+            ResponseEntity<Kanban[]> response = this.restTemplate.getForEntity(
+                    baseURL + "kanbans/?limit=3&after=" + cursor, Kanban[].class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            Arrays.stream(response.getBody()).forEach(kanban -> ids.add(kanban.getId()));
+            cursor = response.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        //then
+        assertTrue(ids.containsAll(createdIds));
+        assertEquals(ids.stream().sorted().distinct().collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void whenTasksMovedToKanbanOnOtherShard_thenRequestIsRejected(){
+
+        //given
+        Kanban kanban = createKanban("Source Kanban");
+        Kanban otherShardKanban = createKanban("Target Kanban");
+        while (shardRouter.shardOf(otherShardKanban.getId()) == shardRouter.shardOf(kanban.getId())) {
+            otherShardKanban = createKanban("Target Kanban");
+        }
+        Task task = this.restTemplate.postForEntity(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/",
+                TaskDTO.builder().title("Task to move").status(TaskStatus.TODO).build(),
+                Task.class).getBody();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.postForEntity(
+                baseURL + "tasks/move",
+                TaskMoveDTO.builder().kanbanId(otherShardKanban.getId()).taskIds(Arrays.asList(task.getId())).build(),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotEquals(otherShardKanban.getId(), shards.get(shardRouter.shardOf(task.getId())).queryForObject(
+                "SELECT kanban_id FROM task WHERE id = ?", Long.class, task.getId()));
+    }
+
+    private Kanban createKanban(String title) {
+        ResponseEntity<Kanban> response = this.restTemplate.postForEntity(
+                baseURL + "kanbans/",
+                KanbanDTO.builder().title(title).build(),
+                Kanban.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private Integer countKanbans(int shard, Long id) {
+        return shards.get(shard).queryForObject("SELECT COUNT(*) FROM kanban WHERE id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,123 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.config.SqlStatisticsFilter;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.repository.SqlStatistics;
+import com.wkrzywiec.medium.kanban.service.KanbanService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+
+import static com.wkrzywiec.medium.kanban.config.SqlStatementAssertions.assertSameStatementCount;
+import static com.wkrzywiec.medium.kanban.config.SqlStatementAssertions.assertStatementCount;
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class SqlStatisticsITCase extends CommonITCase {
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private KanbanService kanbanService;
+
+    @Before
+    public void setUp(){
+        baseURL = "http://localhost:" + port + "/api/";
+    }
+
+    @Test
+    public void whenKanbanSummariesRetrieved_thenSingleStatementIsRun(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.DONE, TaskStatus.INPROGRESS);
+        saveSingleKanbanWithOneTask();
+
+        //when
+        SqlStatistics statistics = assertStatementCount(1, kanbanService::getKanbanSummaries);
+
+        //then
+        assertTrue(statistics.getRows() >= 3);
+    }
+
+    @Test
+    public void whenKanbanBoardsPageRetrieved_thenStatementCountDoesNotDependOnPageSize(){
+
+        //given
+        for (int i = 0; i < 3; i++) {
+            saveSingleKanbanWithOneTask();
+        }
+
+        //when & then
+        assertSameStatementCount(
+                () -> kanbanService.getKanbanBoardsPage(null, 1).getItems().forEach(kanban -> kanban.getTasks().size()),
+                () -> kanbanService.getKanbanBoardsPage(null, 3).getItems().forEach(kanban -> kanban.getTasks().size()));
+    }
+
+    @Test
+    public void whenTaskAddedToKanban_thenStatementCountDoesNotDependOnKanbanSize(){
+
+        //given
+        Kanban smallKanban = saveSingleRandomKanban();
+        Kanban largeKanban = saveSingleRandomKanban();
+        TaskStatus[] statuses = new TaskStatus[50];
+        Arrays.fill(statuses, TaskStatus.TODO);
+        saveTasksInKanban(largeKanban.getId(), statuses);
+        TaskDTO taskDTO = TaskDTO.builder().title("New Task").status(TaskStatus.TODO).build();
+
+        //when & then
+        assertSameStatementCount(
+                () -> kanbanService.addNewTaskToKanban(smallKanban.getId(), taskDTO),
+                () -> kanbanService.addNewTaskToKanban(largeKanban.getId(), taskDTO));
+    }
+
+    @Test
+    public void whenGetKanbanSummaries_thenItsStatementsAreRecordedPerEndpoint(){
+
+        //given
+        saveSingleKanbanWithOneTask();
+        this.restTemplate.getForEntity(baseURL + "kanbans/summary", String.class);
+        long requestsBefore = summary(SqlStatisticsFilter.STATEMENTS_SUMMARY).count();
+        double statementsBefore = summary(SqlStatisticsFilter.STATEMENTS_SUMMARY).totalAmount();
+        double rowsBefore = summary(SqlStatisticsFilter.ROWS_SUMMARY).totalAmount();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.getForEntity(baseURL + "kanbans/summary", String.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(requestsBefore + 1, summary(SqlStatisticsFilter.STATEMENTS_SUMMARY).count());
+        assertEquals(1.0, summary(SqlStatisticsFilter.STATEMENTS_SUMMARY).totalAmount() - statementsBefore, 0.0);
+        assertTrue(summary(SqlStatisticsFilter.ROWS_SUMMARY).totalAmount() - rowsBefore >= 1);
+    }
+
+    private DistributionSummary summary(String name) {
+        return meterRegistry.find(name)
+                .tags("method", "GET", "uri", "/kanbans/summary")
+                .summary();
+    }
+}
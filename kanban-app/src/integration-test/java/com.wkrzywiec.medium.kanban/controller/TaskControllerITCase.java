@@ -1,7 +1,18 @@
 package com.wkrzywiec.medium.kanban.controller;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.Kanban;
 import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskArchive;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskPositionDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
 import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
+import com.wkrzywiec.medium.kanban.service.TaskArchiveService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,12 +29,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 
 @RunWith(SpringRunner.class)
@@ -41,9 +58,18 @@ public class TaskControllerITCase extends CommonITCase {
     @Autowired
     private KanbanRepository kanbanRepository;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
     @Before
     public void setUp(){
-        baseURL = "http://localhost:" + port;
+        baseURL = "http://localhost:" + port + "/api/";
     }
 
     @Test
@@ -64,6 +90,76 @@ public class TaskControllerITCase extends CommonITCase {
         assertTrue(response.getBody().size() >= 1);
     }
 
+    @Test
+    public void whenSearchTasks_thenReceiveTitleMatchesFirstInPages(){
+
+        //given
+        String token = "zebra" + System.nanoTime();
+        Task descriptionMatch = createSingleTask();
+        descriptionMatch.setDescription("Feed the " + token.toUpperCase());
+        descriptionMatch.setPosition(Task.POSITION_GAP);
+        descriptionMatch = taskRepository.save(descriptionMatch);
+        Task titleMatch = createSingleTask();
+        titleMatch.setTitle("Walk the " + token);
+        titleMatch.setPosition(2 * Task.POSITION_GAP);
+        titleMatch = taskRepository.save(titleMatch);
+        Task otherDescriptionMatch = createSingleTask();
+        otherDescriptionMatch.setDescription("Wash the " + token);
+        otherDescriptionMatch.setPosition(3 * Task.POSITION_GAP);
+        otherDescriptionMatch = taskRepository.save(otherDescriptionMatch);
+
+        //when
+        ResponseEntity<List<Task>> firstPage = searchTasks(token, null, 2);
+        ResponseEntity<List<Task>> secondPage = searchTasks(token,
+                firstPage.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER), 2);
+
+        //then
+        assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        assertEquals(2, firstPage.getBody().size());
+        assertEquals(titleMatch.getId(), firstPage.getBody().get(0).getId());
+        assertEquals(titleMatch.getPosition(), firstPage.getBody().get(0).getPosition());
+        assertEquals(descriptionMatch.getId(), firstPage.getBody().get(1).getId());
+        assertEquals(descriptionMatch.getPosition(), firstPage.getBody().get(1).getPosition());
+        assertEquals(1, secondPage.getBody().size());
+        assertEquals(otherDescriptionMatch.getId(), secondPage.getBody().get(0).getId());
+        assertEquals(otherDescriptionMatch.getPosition(), secondPage.getBody().get(0).getPosition());
+        assertNull(secondPage.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void whenSearchTasksWithBlankQuery_thenReceiveBadRequest(){
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "tasks/search?q= ",
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void whenExportAllTasks_thenReceiveOneJsonLinePerTask(){
+
+        //given
+        Task task = saveSingleTask();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "tasks/export",
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertTrue(response.getBody().contains("\"id\":" + task.getId() + ",\"title\":\"" + task.getTitle() + "\""));
+        assertTrue(response.getBody().endsWith("}\n"));
+    }
+
     @Test
     public void whenGetSingleTaskById_thenReceiveSingleTask(){
 
@@ -170,6 +266,47 @@ public class TaskControllerITCase extends CommonITCase {
         assertEquals(task.getTitle(), findTaskInDbById(task.getId()).get().getTitle());
     }
 
+    @Test
+    public void whenPutSingleTaskWithMatchingIfMatch_thenItIsUpdatedWithNewETag(){
+
+        //given
+        Task task = saveSingleTask();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("\"" + task.getVersion() + "\"");
+
+        //when
+        ResponseEntity<Task> response = this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(TaskDTO.builder().title("Matching version").build(), headers),
+                Task.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"" + (task.getVersion() + 1) + "\"", response.getHeaders().getETag());
+        assertEquals("Matching version", findTaskInDbById(task.getId()).get().getTitle());
+    }
+
+    @Test
+    public void whenPutSingleTaskWithStaleIfMatch_thenReceivePreconditionFailed(){
+
+        //given
+        Task task = saveSingleTask();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("\"" + (task.getVersion() + 1) + "\"");
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(TaskDTO.builder().title("Stale version").build(), headers),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals(task.getTitle(), findTaskInDbById(task.getId()).get().getTitle());
+    }
+
     @Test
     public void whenDeleteSingleTaskById_thenItIsDeletedFromDb(){
 
@@ -188,4 +325,228 @@ public class TaskControllerITCase extends CommonITCase {
         assertEquals(String.format("Task with id: %d was deleted", task.getId()), response.getBody());
         assertFalse(findTaskInDbById(task.getId()).isPresent());
     }
+
+    @Test
+    public void whenMoveTasksToOtherKanban_thenTheyAreMovedAndDeletedFromSourceKanban(){
+
+        //given
+        Kanban source = saveSingleRandomKanban();
+        Kanban target = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(source.getId(), TaskStatus.TODO, TaskStatus.DONE, TaskStatus.TODO);
+        TaskMoveDTO taskMoveDTO = TaskMoveDTO.builder()
+                .taskIds(taskIds.subList(0, 2))
+                .kanbanId(target.getId())
+                .build();
+
+        //when
+        ResponseEntity<BulkUpdateResult> response = this.restTemplate.exchange(
+                baseURL + "tasks/move",
+                HttpMethod.POST,
+                new HttpEntity<>(taskMoveDTO, new HttpHeaders()),
+                BulkUpdateResult.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getUpdated());
+        assertEquals(target.getId(), findTaskInDbById(taskIds.get(0)).get().getKanbanId());
+        assertEquals(target.getId(), findTaskInDbById(taskIds.get(1)).get().getKanbanId());
+        assertEquals(source.getId(), findTaskInDbById(taskIds.get(2)).get().getKanbanId());
+        assertEquals(1, findKanbanInDbById(source.getId()).get().getTasks().size());
+        assertEquals(2, findKanbanInDbById(target.getId()).get().getTasks().size());
+        assertEquals(2, taskTombstoneRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(source.getId(), -1L).size());
+    }
+
+    @Test
+    public void whenMoveTasksToNotExistingKanban_thenReceiveNotFound(){
+
+        //given
+        Task task = saveSingleTask();
+        TaskMoveDTO taskMoveDTO = TaskMoveDTO.builder()
+                .taskIds(Collections.singletonList(task.getId()))
+                .kanbanId(Long.MAX_VALUE)
+                .build();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "tasks/move",
+                HttpMethod.POST,
+                new HttpEntity<>(taskMoveDTO, new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void whenMoveTaskPositionAfterOtherTask_thenKanbanTasksAreInNewOrder(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.TODO, TaskStatus.TODO, TaskStatus.DONE);
+        TaskPositionDTO taskPositionDTO = TaskPositionDTO.builder()
+                .afterTaskId(taskIds.get(0))
+                .build();
+
+        //when
+        ResponseEntity<Task> response = moveTaskPosition(taskIds.get(2), taskPositionDTO);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        assertEquals(
+                Arrays.asList(taskIds.get(3), taskIds.get(0), taskIds.get(2), taskIds.get(1)),
+                getKanbanTaskIds(kanban.getId()));
+    }
+
+    @Test
+    public void whenMoveTaskPositionToTopOfOtherColumn_thenItsStatusAndOrderAreChanged(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.DONE, TaskStatus.DONE);
+        TaskPositionDTO taskPositionDTO = TaskPositionDTO.builder()
+                .status(TaskStatus.DONE)
+                .build();
+
+        //when
+        ResponseEntity<Task> response = moveTaskPosition(taskIds.get(0), taskPositionDTO);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(TaskStatus.DONE, response.getBody().getStatus());
+        assertEquals(
+                Arrays.asList(taskIds.get(0), taskIds.get(1), taskIds.get(2)),
+                getKanbanTaskIds(kanban.getId()));
+    }
+
+    @Test
+    public void whenMoveTaskPositionBetweenAdjacentTasks_thenColumnIsRebalanced(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO, TaskStatus.TODO, TaskStatus.TODO);
+        for (int i = 0; i < taskIds.size(); i++) {
+            Task task = findTaskInDbById(taskIds.get(i)).get();
+            task.setPosition((long) i);
+            taskRepository.save(task);
+        }
+        TaskPositionDTO taskPositionDTO = TaskPositionDTO.builder()
+                .afterTaskId(taskIds.get(0))
+                .build();
+
+        //when
+        ResponseEntity<Task> response = moveTaskPosition(taskIds.get(2), taskPositionDTO);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(
+                Arrays.asList(taskIds.get(0), taskIds.get(2), taskIds.get(1)),
+                getKanbanTaskIds(kanban.getId()));
+        assertTrue(findTaskInDbById(taskIds.get(1)).get().getPosition() - response.getBody().getPosition() > 1);
+    }
+
+    @Test
+    public void whenMoveTaskPositionAfterItself_thenReceiveBadRequest(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.TODO);
+        TaskPositionDTO taskPositionDTO = TaskPositionDTO.builder()
+                .afterTaskId(taskIds.get(0))
+                .build();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.exchange(
+                baseURL + "tasks/" + taskIds.get(0) + "/position",
+                HttpMethod.PUT,
+                new HttpEntity<>(taskPositionDTO, new HttpHeaders()),
+                String.class);
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void whenPutSingleTaskToDone_thenItsDoneTimeIsSetAndClearedAfterReopening(){
+
+        //given
+        Task task = saveSingleTask();
+        TaskDTO taskDTO = convertTaskToDTO(task);
+        taskDTO.setStatus(TaskStatus.DONE);
+
+        //when
+        ResponseEntity<Task> doneResponse = this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(taskDTO, new HttpHeaders()),
+                Task.class);
+        taskDTO.setStatus(TaskStatus.TODO);
+        ResponseEntity<Task> reopenedResponse = this.restTemplate.exchange(
+                baseURL + "tasks/" + task.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(taskDTO, new HttpHeaders()),
+                Task.class);
+
+        //then
+        assertNotNull(doneResponse.getBody().getDoneAt());
+        assertNull(reopenedResponse.getBody().getDoneAt());
+    }
+
+    @Test
+    public void whenOldDoneTasksArchived_thenTheyAreMovedOutOfKanbanToArchive(){
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        List<Long> taskIds = saveTasksInKanban(kanban.getId(), TaskStatus.DONE, TaskStatus.DONE, TaskStatus.TODO);
+        Task oldDoneTask = findTaskInDbById(taskIds.get(0)).get();
+        oldDoneTask.setDoneAt(Instant.now().minus(Duration.ofDays(365)));
+        taskRepository.save(oldDoneTask);
+
+        //when
+        int archived = taskArchiveService.archiveDoneTasks();
+        ResponseEntity<List<TaskArchive>> response = this.restTemplate.exchange(
+                baseURL + "tasks/archive?kanbanId=" + kanban.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                new ParameterizedTypeReference<List<TaskArchive>>() {});
+
+        //then
+        assertEquals(1, archived);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals(taskIds.get(0), response.getBody().get(0).getId());
+        assertEquals(kanban.getId(), response.getBody().get(0).getKanbanId());
+        assertNotNull(response.getBody().get(0).getArchivedAt());
+        assertFalse(findTaskInDbById(taskIds.get(0)).isPresent());
+        assertEquals(Arrays.asList(taskIds.get(1), taskIds.get(2)), getKanbanTaskIds(kanban.getId()));
+        assertEquals(1, taskTombstoneRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(kanban.getId(), -1L).size());
+    }
+
+    private ResponseEntity<Task> moveTaskPosition(Long taskId, TaskPositionDTO taskPositionDTO) {
+        return this.restTemplate.exchange(
+                baseURL + "tasks/" + taskId + "/position",
+                HttpMethod.PUT,
+                new HttpEntity<>(taskPositionDTO, new HttpHeaders()),
+                Task.class);
+    }
+
+    private List<Long> getKanbanTaskIds(Long kanbanId) {
+        ResponseEntity<Kanban> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanbanId,
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                Kanban.class);
+        return response.getBody().getTasks().stream()
+                .map(Task::getId)
+                .collect(Collectors.toList());
+    }
+
+    private ResponseEntity<List<Task>> searchTasks(String query, String after, int limit) {
+        return this.restTemplate.exchange(
+                baseURL + "tasks/search?q={q}&limit={limit}" + (after == null ? "" : "&after=" + after),
+                HttpMethod.GET,
+                new HttpEntity<>(new HttpHeaders()),
+                new ParameterizedTypeReference<List<Task>>() {},
+                query, limit);
+    }
 }
@@ -0,0 +1,83 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.service.TaskUpdateCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Coalescing with a window long enough that pending updates are only
+ * written when other requests come in.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource( properties = {
+        "kanban.coalescing.enabled=true",
+        "kanban.coalescing.window=3600000"
+})
+public class TaskUpdateCoalescingITCase extends CommonITCase {
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp(){
+        baseURL = "http://localhost:" + port + "/api/";
+    }
+
+    @Test
+    public void whenTaskUpdatedTwice_thenUpdatesAreCoalescedAndReadBack(){
+
+        //given
+        Task task = saveSingleKanbanWithOneTask().getTasks().get(0);
+        double writesBefore = meterRegistry.get(TaskUpdateCoalescer.WRITES_COUNTER).counter().count();
+
+        //when
+        ResponseEntity<TaskDTO> titleResponse = updateTask(task.getId(), TaskDTO.builder().title("New Title").build());
+        ResponseEntity<TaskDTO> colorResponse = updateTask(task.getId(), TaskDTO.builder().color("#7afcff").build());
+
+        //then
+        assertEquals(HttpStatus.ACCEPTED, titleResponse.getStatusCode());
+        assertEquals(HttpStatus.ACCEPTED, colorResponse.getStatusCode());
+        assertEquals("New Title", colorResponse.getBody().getTitle());
+        assertEquals(task.getTitle(), findTaskInDbById(task.getId()).get().getTitle());
+
+        ResponseEntity<Task> response = this.restTemplate.getForEntity(baseURL + "tasks/" + task.getId(), Task.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("New Title", response.getBody().getTitle());
+        assertEquals("#7afcff", response.getBody().getColor());
+        assertEquals(Long.valueOf(1L), response.getBody().getVersion());
+        assertEquals(writesBefore + 1, meterRegistry.get(TaskUpdateCoalescer.WRITES_COUNTER).counter().count(), 0.0);
+    }
+
+    private ResponseEntity<TaskDTO> updateTask(Long id, TaskDTO taskDTO) {
+        return this.restTemplate.exchange(
+                baseURL + "tasks/" + id,
+                HttpMethod.PUT,
+                new HttpEntity<>(taskDTO),
+                TaskDTO.class);
+    }
+}
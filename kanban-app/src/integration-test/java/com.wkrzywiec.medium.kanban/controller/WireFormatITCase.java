@@ -0,0 +1,160 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class WireFormatITCase extends CommonITCase {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    private String baseURL;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setUp(){
+        baseURL = "http://localhost:" + port + "/api/";
+    }
+
+    @Test
+    public void whenGetKanbanWithoutAccept_thenReceiveJson(){
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+
+        //when
+        ResponseEntity<String> response = this.restTemplate.getForEntity(baseURL + "kanbans/" + kanban.getId(), String.class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON_UTF8, response.getHeaders().getContentType());
+    }
+
+    @Test
+    public void whenGetKanbanAsSmile_thenReceiveSmileKanban() throws IOException {
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(SMILE));
+
+        //when
+        ResponseEntity<byte[]> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                byte[].class);
+
+        //then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(SMILE, response.getHeaders().getContentType());
+        Kanban smileKanban = Jackson2ObjectMapperBuilder.smile().build().readValue(response.getBody(), Kanban.class);
+        assertEquals(kanban.getId(), smileKanban.getId());
+        assertEquals(1, smileKanban.getTasks().size());
+    }
+
+    @Test
+    public void whenPostTaskAsCbor_thenReceiveCborTask() throws IOException {
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        TaskDTO taskDTO = TaskDTO.builder().title("CBOR Task").status(TaskStatus.TODO).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(CBOR);
+        headers.setAccept(Collections.singletonList(CBOR));
+
+        //when
+        ResponseEntity<byte[]> response = this.restTemplate.exchange(
+                baseURL + "kanbans/" + kanban.getId() + "/tasks/",
+                HttpMethod.POST,
+                new HttpEntity<>(cborMapper.writeValueAsBytes(taskDTO), headers),
+                byte[].class);
+
+        //then
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(CBOR, response.getHeaders().getContentType());
+        Task task = cborMapper.readValue(response.getBody(), Task.class);
+        assertEquals("CBOR Task", task.getTitle());
+        assertEquals("CBOR Task", findTaskInDbById(task.getId()).get().getTitle());
+    }
+
+    @Test
+    public void whenGetLargeKanbanAcceptingGzip_thenReceiveCompressedKanban() throws IOException {
+
+        //given
+        Kanban kanban = saveSingleRandomKanban();
+        TaskStatus[] statuses = new TaskStatus[100];
+        Arrays.fill(statuses, TaskStatus.TODO);
+        saveTasksInKanban(kanban.getId(), statuses);
+
+        //when
+        HttpURLConnection connection = getAcceptingGzip(baseURL + "kanbans/" + kanban.getId());
+
+        //then
+        assertEquals(HttpStatus.OK.value(), connection.getResponseCode());
+        assertEquals("gzip", connection.getContentEncoding());
+        try (InputStream body = new GZIPInputStream(connection.getInputStream())) {
+            Kanban gzipKanban = new ObjectMapper().readValue(body, Kanban.class);
+            assertEquals(100, gzipKanban.getTasks().size());
+        }
+    }
+
+    @Test
+    public void whenGetSmallKanbanAcceptingGzip_thenReceiveUncompressedKanban() throws IOException {
+
+        //given
+        Kanban kanban = saveSingleKanbanWithOneTask();
+
+        //when
+        HttpURLConnection connection = getAcceptingGzip(baseURL + "kanbans/" + kanban.getId());
+
+        //then
+        assertEquals(HttpStatus.OK.value(), connection.getResponseCode());
+        assertNull(connection.getContentEncoding());
+        connection.getInputStream().close();
+    }
+
+    private HttpURLConnection getAcceptingGzip(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return connection;
+    }
+}
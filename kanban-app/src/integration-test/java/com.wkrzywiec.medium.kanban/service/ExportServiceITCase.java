@@ -0,0 +1,110 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.config.H2DatabaseConfig4Test;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs in its own failsafe execution with a small heap (see pom.xml), so
+ * the export fails with OutOfMemoryError if it ever holds all rows at once.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = { H2DatabaseConfig4Test.class })
+@TestPropertySource(properties = {
+        "kanban.test.h2.url=jdbc:h2:file:./target/h2/export;LAZY_QUERY_EXECUTION=1;CACHE_SIZE=8192"
+})
+public class ExportServiceITCase {
+
+    private static final int TASK_COUNT = 300_000;
+    private static final int INSERT_BATCH_SIZE = 1_000;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private KanbanRepository kanbanRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExportService exportService;
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void init() {
+        exportService = new ExportServiceImpl(taskRepository, kanbanRepository, new ObjectMapper());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @Test
+    public void whenManyTasksInDatabase_thenEachIsExportedAsSingleLine() {
+        //given
+        saveTasksInDatabase(TASK_COUNT);
+        LineCountingOutputStream outputStream = new LineCountingOutputStream();
+
+        //when
+        Long exported = transactionTemplate.execute(status -> {
+            try {
+                return exportService.exportAllTasks(outputStream);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //then
+        assertEquals(TASK_COUNT, exported.longValue());
+        assertEquals(TASK_COUNT, outputStream.lines);
+    }
+
+    private void saveTasksInDatabase(int taskCount) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM task");
+        String description = new String(new char[200]).replace('\0', 'x');
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < taskCount; i++) {
+            batch.add(new Object[]{ "Task " + i, description, "#FFFFFF", "TODO" });
+            if (batch.size() == INSERT_BATCH_SIZE || i == taskCount - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO task (title, description, color, status) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
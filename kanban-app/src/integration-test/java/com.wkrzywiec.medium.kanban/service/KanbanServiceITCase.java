@@ -3,14 +3,22 @@ package com.wkrzywiec.medium.kanban.service;
 import com.wkrzywiec.medium.kanban.config.H2DatabaseConfig4Test;
 import com.wkrzywiec.medium.kanban.model.Kanban;
 import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
 import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -22,12 +30,23 @@ public class KanbanServiceITCase {
 
     @Autowired
     private KanbanRepository kanbanRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private DataSource dataSource;
     private KanbanService kanbanService;
 
 
     @Before
     public void init() {
-        kanbanService = new KanbanServiceImpl(kanbanRepository);
+        kanbanService = new KanbanServiceImpl(kanbanRepository, taskRepository, taskTombstoneRepository, new EntityCacheEvictor(entityManagerFactory), eventPublisher,
+                new TaskFlowServiceImpl(new TaskFlowRepository(dataSource, 500), kanbanRepository, new ShardRouter(1, 1)));
     }
 
 
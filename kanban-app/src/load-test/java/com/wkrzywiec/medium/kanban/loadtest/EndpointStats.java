@@ -0,0 +1,56 @@
+package com.wkrzywiec.medium.kanban.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (in microseconds) and error count of a single endpoint,
+ * safe to be recorded to from many worker threads.
+ */
+class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long startNanos, long endNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos);
+        histogram.recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    void add(EndpointStats other) {
+        histogram.add(other.histogram);
+        errors.add(other.errors.sum());
+    }
+
+    Map<String, Object> toReport(double durationSeconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", histogram.getTotalCount());
+        report.put("errors", errors.sum());
+        report.put("throughputPerSecond", round(histogram.getTotalCount() / durationSeconds));
+        report.put("meanMs", round(histogram.getMean() / 1000.0));
+        report.put("p50Ms", percentileMillis(50.0));
+        report.put("p95Ms", percentileMillis(95.0));
+        report.put("p99Ms", percentileMillis(99.0));
+        report.put("p999Ms", percentileMillis(99.9));
+        report.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+        return report;
+    }
+
+    private double percentileMillis(double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
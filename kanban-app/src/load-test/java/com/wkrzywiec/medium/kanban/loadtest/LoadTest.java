@@ -0,0 +1,280 @@
+package com.wkrzywiec.medium.kanban.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wkrzywiec.medium.kanban.KanbanApplication;
+import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Closed-loop HTTP load test of the REST API. Unless loadtest.base-url is
+ * set, it boots the application on a random port against in-memory H2,
+ * seeds boards with tasks, and then lets loadtest.concurrency workers run
+ * a weighted mix of board browsing, task creation and task status moves.
+ * The reactive operation browses boards through the reactive read API, so
+ * e.g. mix browse=100 and mix reactive=100 compare it with the MVC one.
+ * Latency percentiles and throughput of each endpoint are printed and
+ * written as JSON to loadtest.output. Arguments in --key=value form are
+ * passed to the embedded application.
+ */
+public class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String GET_KANBANS = "GET /kanbans/";
+    private static final String GET_KANBAN = "GET /kanbans/{id}";
+    private static final String POST_TASK = "POST /kanbans/{id}/tasks/";
+    private static final String PUT_TASK = "PUT /tasks/{id}";
+    private static final String GET_REACTIVE_KANBANS = "GET /reactive/kanbans/";
+    private static final String GET_REACTIVE_KANBAN = "GET /reactive/kanbans/{id}";
+
+    private final String targetUrl = System.getProperty("loadtest.base-url", "");
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 5);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+    private final int boards = Integer.getInteger("loadtest.boards", 20);
+    private final int tasksPerBoard = Integer.getInteger("loadtest.tasks-per-board", 50);
+    private final String mix = System.getProperty("loadtest.mix", "browse=70,create=20,move=10");
+    private final String output = System.getProperty("loadtest.output", "target/load-test-result.json");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+    private final List<Long> boardIds = new ArrayList<>();
+    private final List<Long> taskIds = new ArrayList<>();
+    private RestTemplate restTemplate;
+    private String baseUrl;
+    private long warmupEndNanos;
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest();
+        System.setProperty("http.maxConnections", String.valueOf(loadTest.concurrency));
+        ConfigurableApplicationContext application = null;
+        try {
+            String baseUrl = loadTest.targetUrl;
+            if (baseUrl.isEmpty()) {
+                application = startEmbeddedApplication(args);
+                baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port") + "/api";
+            }
+            loadTest.run(baseUrl);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbeddedApplication(String[] args) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("logging.level.com.wkrzywiec.medium.kanban", "WARN");
+        for (String arg : args) {
+            String[] keyValue = arg.replaceFirst("^--", "").split("=", 2);
+            properties.put(keyValue[0], keyValue.length > 1 ? keyValue[1] : "");
+        }
+        String[] applicationArgs = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+
+        return new SpringApplicationBuilder(KanbanApplication.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("testConfigurationExcludeFilter", new TestConfigurationExcludeFilter()))
+                .run(applicationArgs);
+    }
+
+    private void run(String baseUrl) throws Exception {
+        this.baseUrl = baseUrl;
+        this.restTemplate = new RestTemplate();
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+        Arrays.asList(GET_KANBANS, GET_KANBAN, POST_TASK, PUT_TASK, GET_REACTIVE_KANBANS, GET_REACTIVE_KANBAN)
+                .forEach(endpoint -> endpoints.put(endpoint, new EndpointStats()));
+        List<String> operations = parseMix(mix);
+
+        logger.info("Seeding {} boards with {} tasks each at {}", boards, tasksPerBoard, baseUrl);
+        seed();
+
+        logger.info("Running {} workers for {}s (+{}s warm-up) with mix {}", concurrency, durationSeconds, warmupSeconds, mix);
+        long startNanos = System.nanoTime();
+        warmupEndNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = warmupEndNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < endNanos) {
+                    runOperation(operations.get(random.nextInt(operations.size())), random);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmupSeconds + durationSeconds + 60L, TimeUnit.SECONDS);
+
+        report();
+    }
+
+    private void seed() throws IOException {
+        for (int i = 0; i < boards; i++) {
+            KanbanDTO kanbanDTO = KanbanDTO.builder().title("Load Test Board " + i).build();
+            ResponseEntity<String> kanban = exchange(HttpMethod.POST, "/kanbans/", kanbanDTO);
+            long kanbanId = objectMapper.readTree(kanban.getBody()).get("id").asLong();
+            boardIds.add(kanbanId);
+
+            List<TaskDTO> taskDTOs = IntStream.range(0, tasksPerBoard)
+                    .mapToObj(task -> taskDTO("Load Test Task " + task))
+                    .collect(Collectors.toList());
+            ResponseEntity<String> ids = exchange(HttpMethod.POST, "/kanbans/" + kanbanId + "/tasks/batch", taskDTOs);
+            objectMapper.readTree(ids.getBody()).forEach(id -> taskIds.add(id.asLong()));
+        }
+    }
+
+    private void runOperation(String operation, ThreadLocalRandom random) {
+        Long kanbanId = boardIds.get(random.nextInt(boardIds.size()));
+        switch (operation) {
+            case "browse":
+                timed(GET_KANBANS, HttpMethod.GET, "/kanbans/?limit=20", null);
+                timed(GET_KANBAN, HttpMethod.GET, "/kanbans/" + kanbanId, null);
+                break;
+            case "reactive":
+                timed(GET_REACTIVE_KANBANS, HttpMethod.GET, "/reactive/kanbans/", null);
+                timed(GET_REACTIVE_KANBAN, HttpMethod.GET, "/reactive/kanbans/" + kanbanId, null);
+                break;
+            case "create":
+                timed(POST_TASK, HttpMethod.POST, "/kanbans/" + kanbanId + "/tasks/", taskDTO("New Task " + random.nextInt()));
+                break;
+            case "move":
+                Long taskId = taskIds.get(random.nextInt(taskIds.size()));
+                TaskStatus status = TaskStatus.values()[random.nextInt(TaskStatus.values().length)];
+                timed(PUT_TASK, HttpMethod.PUT, "/tasks/" + taskId, TaskDTO.builder().status(status).build());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown load test operation: " + operation);
+        }
+    }
+
+    private void timed(String endpoint, HttpMethod method, String path, Object body) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = exchange(method, path, body).getStatusCode().is2xxSuccessful();
+        } catch (Exception e) {
+            success = false;
+        }
+        long end = System.nanoTime();
+        if (start >= warmupEndNanos) {
+            endpoints.get(endpoint).record(start, end, success);
+        }
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.exchange(baseUrl + path, method, new HttpEntity<>(body, headers), String.class);
+    }
+
+    private void report() throws IOException {
+        EndpointStats total = new EndpointStats();
+        Map<String, Object> endpointReports = new LinkedHashMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            endpointReports.put(endpoint, stats.toReport(durationSeconds));
+            total.add(stats);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("target", targetUrl.isEmpty() ? "embedded-h2" : targetUrl);
+        report.put("concurrency", concurrency);
+        report.put("warmupSeconds", warmupSeconds);
+        report.put("durationSeconds", durationSeconds);
+        report.put("mix", mix);
+        report.put("endpoints", endpointReports);
+        report.put("total", total.toReport(durationSeconds));
+
+        File outputFile = new File(output);
+        if (outputFile.getParentFile() != null) {
+            outputFile.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(outputFile, report);
+
+        System.out.printf("%-28s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms");
+        endpointReports.put("total", report.get("total"));
+        endpointReports.forEach((endpoint, stats) -> {
+            Map<?, ?> values = (Map<?, ?>) stats;
+            System.out.printf("%-28s %10s %8s %10s %9s %9s %9s %9s%n", endpoint,
+                    values.get("requests"), values.get("errors"), values.get("throughputPerSecond"),
+                    values.get("p50Ms"), values.get("p95Ms"), values.get("p99Ms"), values.get("p999Ms"));
+        });
+        logger.info("Load test results written to {}", outputFile.getAbsolutePath());
+    }
+
+    private static List<String> parseMix(String mix) {
+        List<String> operations = new ArrayList<>();
+        for (String weightedOperation : mix.split(",")) {
+            String[] operationAndWeight = weightedOperation.trim().split("=");
+            int weight = Integer.parseInt(operationAndWeight[1].trim());
+            for (int i = 0; i < weight; i++) {
+                operations.add(operationAndWeight[0].trim());
+            }
+        }
+        return operations;
+    }
+
+    private static TaskDTO taskDTO(String title) {
+        return TaskDTO.builder()
+                .title(title)
+                .description("Created by load test")
+                .color("#FFD700")
+                .status(TaskStatus.TODO)
+                .build();
+    }
+
+    /**
+     * Integration test configurations share the test classpath with the
+     * load test, keeps them out of the application's component scan.
+     */
+    static class TestConfigurationExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+}
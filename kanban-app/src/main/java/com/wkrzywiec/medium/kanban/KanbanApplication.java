@@ -6,11 +6,13 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import io.micrometer.core.annotation.Timed;
 
 @SpringBootApplication
 @EntityScan("com.wkrzywiec.medium.kanban.model")
 @EnableJpaRepositories("com.wkrzywiec.medium.kanban.repository")
+@EnableScheduling
 public class KanbanApplication {
 
 	private static final Logger logger = LoggerFactory.getLogger(KanbanApplication.class);
@@ -0,0 +1,109 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit adjusted with AIMD from the latency of completed
+ * requests: a request slower than the latency target cuts the limit by
+ * the backoff ratio, at most once per latency target, so a single spike
+ * seen by all requests in flight cuts it only once; each faster request
+ * raises it by 1/limit while at least half of it is in use, i.e. by about
+ * one per limit's worth of requests. So when the database slows down, fewer
+ * requests are let in to wait for it, and the limit recovers as it speeds
+ * up again.
+ * <p>
+ * While more than half of the limit is in use, a single client may hold
+ * only an equal share of it among the clients with requests in flight,
+ * so one busy client can't take all of it.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+    private final Map<String, Integer> clientsInFlight = new HashMap<>();
+    private double limit;
+    private int inFlight;
+    private long lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetMillis, double backoffRatio) {
+        this(initialLimit, minLimit, maxLimit, latencyTargetMillis, backoffRatio, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetMillis, double backoffRatio,
+                             LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.lastBackoffNanos = nanoClock.getAsLong() - latencyTargetNanos;
+    }
+
+    /**
+     * Returns false, without waiting, when the request is over the limit
+     * or over the share of its client.
+     */
+    public synchronized boolean tryAcquire(String client) {
+        int currentLimit = getLimit();
+        if (inFlight >= currentLimit) {
+            return false;
+        }
+        int clientInFlight = clientsInFlight.getOrDefault(client, 0);
+        if (inFlight * 2 >= currentLimit) {
+            int activeClients = clientsInFlight.size() + (clientInFlight == 0 ? 1 : 0);
+            int clientShare = Math.max(1, (currentLimit + activeClients - 1) / activeClients);
+            if (clientInFlight >= clientShare) {
+                return false;
+            }
+        }
+        inFlight++;
+        clientsInFlight.put(client, clientInFlight + 1);
+        return true;
+    }
+
+    /**
+     * Releases a request acquired before, adjusting the limit by its
+     * latency unless it's negative, e.g. for requests continued asynchronously.
+     */
+    public synchronized void release(String client, long latencyNanos) {
+        if (latencyNanos >= 0) {
+            if (latencyNanos > latencyTargetNanos) {
+                long now = nanoClock.getAsLong();
+                if (now - lastBackoffNanos >= latencyTargetNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastBackoffNanos = now;
+                }
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+        inFlight--;
+        int clientInFlight = clientsInFlight.getOrDefault(client, 0);
+        if (clientInFlight <= 1) {
+            clientsInFlight.remove(client);
+        } else {
+            clientsInFlight.put(client, clientInFlight - 1);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
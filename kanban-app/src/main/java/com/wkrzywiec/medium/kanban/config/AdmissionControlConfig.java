@@ -0,0 +1,51 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+
+/**
+ * Admission control in front of the controllers, see AdmissionControlFilter.
+ * Limits of reads and writes are set with kanban.admission.read.* and
+ * kanban.admission.write.* (initial-limit, min-limit, max-limit and
+ * latency-target in ms). Latency of kanban.admission.streaming-paths, given
+ * without the context path, doesn't adjust the limits. Can be turned off
+ * with kanban.admission.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kanban.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(Environment environment, MeterRegistry meterRegistry,
+                                                                                 @Value("${kanban.admission.backoff-ratio:0.9}") double backoffRatio,
+                                                                                 @Value("${kanban.admission.retry-after:1}") int retryAfterSeconds,
+                                                                                 @Value("${kanban.admission.streaming-paths:/kanbans/export,/tasks/export}") String[] streamingPaths) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                concurrencyLimit(environment, "read", 20, 4, 200, 250, backoffRatio),
+                concurrencyLimit(environment, "write", 10, 2, 100, 500, backoffRatio),
+                retryAfterSeconds, Arrays.asList(streamingPaths), meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        // rejected requests shouldn't cost anything the other filters do
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimit concurrencyLimit(Environment environment, String type, int initialLimit, int minLimit,
+                                                             int maxLimit, long latencyTarget, double backoffRatio) {
+        String prefix = "kanban.admission." + type + ".";
+        return new AdaptiveConcurrencyLimit(
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+                environment.getProperty(prefix + "max-limit", Integer.class, maxLimit),
+                environment.getProperty(prefix + "latency-target", Long.class, latencyTarget),
+                backoffRatio);
+    }
+}
@@ -0,0 +1,136 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lets requests through to the controllers only within the adaptive
+ * concurrency limit of their kind, reads (GET, HEAD, OPTIONS) or writes,
+ * and answers the others right away with 503 and Retry-After instead of
+ * letting them queue for a database connection. Clients are told apart by
+ * their remote address, which server.use-forward-headers takes from
+ * X-Forwarded-For of trusted proxies. Actuator endpoints are never limited.
+ * <p>
+ * Requests to streaming paths, e.g. exports, are limited, but their latency
+ * depends on the size of the response and the speed of the client rather
+ * than on the database, so it doesn't adjust the limit.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    public static final String REQUESTS_COUNTER = "kanban.admission.requests";
+    public static final String IN_FLIGHT_GAUGE = "kanban.admission.in-flight";
+    public static final String LIMIT_GAUGE = "kanban.admission.limit";
+
+    static final String REJECTED_MESSAGE = "Server is busy, try again later";
+
+    private final Admission reads;
+    private final Admission writes;
+    private final String retryAfterSeconds;
+    private final List<String> streamingPaths;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+                                  int retryAfterSeconds, MeterRegistry meterRegistry) {
+        this(readLimit, writeLimit, retryAfterSeconds, Collections.emptyList(), meterRegistry);
+    }
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+                                  int retryAfterSeconds, List<String> streamingPaths, MeterRegistry meterRegistry) {
+        this.streamingPaths = streamingPaths;
+        this.reads = new Admission("read", readLimit, meterRegistry);
+        this.writes = new Admission("write", writeLimit, meterRegistry);
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Admission admission = isRead(request) ? reads : writes;
+        String client = request.getRemoteAddr();
+        if (!admission.limit.tryAcquire(client)) {
+            admission.rejected.increment();
+            logger.debug("Rejected {} {} of {}, {} requests are limited to {}", request.getMethod(), request.getRequestURI(),
+                    client, admission.type, admission.limit.getLimit());
+            reject(response);
+            return;
+        }
+        admission.accepted.increment();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // only the start of async requests runs here, which says nothing about the database
+            boolean measured = !request.isAsyncStarted() && !isStreaming(request);
+            admission.limit.release(client, measured ? System.nanoTime() - start : -1);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(REJECTED_MESSAGE);
+    }
+
+    private boolean isStreaming(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return streamingPaths.contains(path);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static class Admission {
+
+        private final String type;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter accepted;
+        private final Counter rejected;
+
+        Admission(String type, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.limit = limit;
+            this.accepted = Counter.builder(REQUESTS_COUNTER)
+                    .tags("type", type, "result", "accepted")
+                    .description("HTTP requests let through or rejected by admission control")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder(REQUESTS_COUNTER)
+                    .tags("type", type, "result", "rejected")
+                    .description("HTTP requests let through or rejected by admission control")
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_GAUGE, limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("type", type)
+                    .description("HTTP requests being handled within the concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder(LIMIT_GAUGE, limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("type", type)
+                    .description("Current adaptive concurrency limit of HTTP requests")
+                    .register(meterRegistry);
+        }
+    }
+}
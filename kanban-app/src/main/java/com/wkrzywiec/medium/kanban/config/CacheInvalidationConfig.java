@@ -0,0 +1,45 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.repository.InProcessCacheInvalidationBus;
+import com.wkrzywiec.medium.kanban.repository.PostgresCacheInvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Shares invalidations of the second-level cache between the instances of
+ * the app, picked with kanban.cache.invalidation.transport: postgres (the
+ * default) sends them as notifications of the spring.datasource database,
+ * in-process only within the JVM and none turns them off, e.g. for a
+ * single instance.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kanban.cache.enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationConfig.class);
+
+    private static final String TRANSPORT_PROPERTY = "kanban.cache.invalidation.transport";
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "postgres", matchIfMissing = true)
+    public PostgresCacheInvalidationBus postgresCacheInvalidationBus(DataSourceProperties properties, ObjectMapper objectMapper,
+                                                                     @Value("${kanban.cache.invalidation.channel:kanban_cache_invalidation}") String channel,
+                                                                     @Value("${kanban.cache.invalidation.poll-interval:500}") int pollInterval,
+                                                                     @Value("${kanban.cache.invalidation.reconnect-interval:5000}") long reconnectInterval) {
+        logger.info("Sharing cache invalidations with other instances through Postgres channel {}", channel);
+        return new PostgresCacheInvalidationBus(properties.determineUrl(), properties.determineUsername(),
+                properties.determinePassword(), channel, pollInterval, reconnectInterval, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "in-process")
+    public InProcessCacheInvalidationBus inProcessCacheInvalidationBus() {
+        return new InProcessCacheInvalidationBus();
+    }
+}
@@ -0,0 +1,101 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.PrimaryAwareJpaTransactionManager;
+import com.wkrzywiec.medium.kanban.repository.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting. Read-only transactions go to the read replicas
+ * configured with kanban.datasource.replicas[n].url (and optionally
+ * username and password, which default to those of the primary), everything
+ * else goes to the primary from spring.datasource. All pools share the
+ * spring.datasource.hikari settings and report hikaricp.* metrics tagged
+ * with their pool name. Without replicas all work runs on the primary.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    public static final String PRIMARY_POOL = "primary";
+    public static final String REPLICA_POOL_PREFIX = "replica-";
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        PrimaryAwareJpaTransactionManager transactionManager = new PrimaryAwareJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public FilterRegistrationBean<PrimaryRoutingFilter> primaryRoutingFilter(Environment environment,
+                                                                            @Value("${kanban.datasource.read-your-writes-seconds:5}") int readYourWritesSeconds) {
+        boolean replicasConfigured = environment.containsProperty("kanban.datasource.replicas[0].url");
+        FilterRegistrationBean<PrimaryRoutingFilter> registration =
+                new FilterRegistrationBean<>(new PrimaryRoutingFilter(replicasConfigured ? readYourWritesSeconds : 0));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 4);
+        return registration;
+    }
+
+    @Configuration
+    @ConditionalOnProperty("kanban.datasource.replicas[0].url")
+    static class ReplicaRoutingConfiguration {
+
+        @Bean
+        public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                                 MeterRegistry meterRegistry) {
+            Binder binder = Binder.get(environment);
+            HikariDataSource primary = createPool(properties, PRIMARY_POOL, binder, meterRegistry);
+            List<DataSourceProperties> replicasProperties = binder
+                    .bind("kanban.datasource.replicas", Bindable.listOf(DataSourceProperties.class))
+                    .get();
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (DataSourceProperties replicaProperties : replicasProperties) {
+                if (replicaProperties.getUsername() == null) {
+                    replicaProperties.setUsername(properties.determineUsername());
+                    replicaProperties.setPassword(properties.determinePassword());
+                }
+                replicas.add(createPool(replicaProperties, REPLICA_POOL_PREFIX + (replicas.size() + 1), binder, meterRegistry));
+            }
+            logger.info("Routing read-only transactions to {} read replicas", replicas.size());
+            return new ReplicaRoutingDataSource(primary, replicas, meterRegistry);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+
+        private static HikariDataSource createPool(DataSourceProperties properties, String poolName, Binder binder,
+                                                   MeterRegistry meterRegistry) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName(poolName);
+            pool.setMetricRegistry(meterRegistry);
+            return pool;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URISyntaxException;
+
+/**
+ * Opt-in Hibernate second-level and query cache backed by Ehcache (see
+ * ehcache.xml for region sizes). Hit/miss/put counts per region come from
+ * Hibernate statistics, evictions and removals from the JCache statistics
+ * of each region, all registered in the Prometheus registry.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kanban.cache.enabled", havingValue = "true")
+public class HibernateCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HibernateCacheConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws URISyntaxException {
+        logger.info("Initializing Hibernate second-level cache...");
+        CachingProvider cachingProvider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return cachingProvider.getCacheManager(
+                getClass().getResource("/ehcache.xml").toURI(),
+                getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager, ShardRouter shardRouter) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            // cached query results are keyed by query and parameters only, so they would mix up shards
+            properties.put(AvailableSettings.USE_QUERY_CACHE, shardRouter.getShardCount() == 1);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> hibernateCacheManager.getCacheNames().forEach(cacheName ->
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(cacheName), Tags.empty()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.DataSourceRouting;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Runs all database work of write requests on the primary, including the
+ * reads they make before writing. If read-your-writes-seconds is positive,
+ * a write also sets a short-lived cookie that keeps the next requests of
+ * the client on the primary, so it sees its own writes despite the
+ * replication lag.
+ */
+public class PrimaryRoutingFilter extends OncePerRequestFilter {
+
+    public static final String PRIMARY_COOKIE = "KANBAN_PRIMARY";
+
+    private static final Set<String> READ_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "TRACE"));
+
+    private final int readYourWritesSeconds;
+
+    public PrimaryRoutingFilter(int readYourWritesSeconds) {
+        this.readYourWritesSeconds = readYourWritesSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write && readYourWritesSeconds > 0) {
+            Cookie cookie = new Cookie(PRIMARY_COOKIE, "true");
+            cookie.setPath(StringUtils.hasLength(request.getContextPath()) ? request.getContextPath() : "/");
+            cookie.setMaxAge(readYourWritesSeconds);
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        if (!write && (readYourWritesSeconds <= 0 || WebUtils.getCookie(request, PRIMARY_COOKIE) == null)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        DataSourceRouting.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clear();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler for blocking JDBC calls of the reactive read API. Requests of
+ * that API release their Tomcat thread while they wait for the database,
+ * and the number of threads blocked on JDBC is capped by the size of this
+ * pool, which should not exceed the connection pool. Once its queue is
+ * full, new work is rejected right away instead of piling up.
+ */
+@Configuration
+public class ReactiveConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveConfig.class);
+
+    public static final String JDBC_SCHEDULER = "jdbcScheduler";
+
+    @Bean(name = JDBC_SCHEDULER, destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${kanban.reactive.db-threads:10}") int threads,
+                                   @Value("${kanban.reactive.queue-size:1000}") int queueSize) {
+        logger.info("Initializing reactive JDBC scheduler with {} threads and queue of {}", threads, queueSize);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kanban-reactive-jdbc-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        return Schedulers.fromExecutorService(executor);
+    }
+}
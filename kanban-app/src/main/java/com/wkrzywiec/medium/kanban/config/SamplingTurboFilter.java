@@ -0,0 +1,45 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through only every n-th log statement of loggers whose name starts
+ * with a configured prefix. Statements more severe than the configured
+ * level are never dropped. It is a turbo filter, so a dropped statement is
+ * rejected before its logging event and message are created.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "";
+    private Level level = Level.INFO;
+    private int sampleRate = 1;
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (sampleRate <= 1 || format == null || level.toInt() > this.level.toInt()
+                || level.toInt() < logger.getEffectiveLevel().toInt()
+                || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLogger(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
@@ -0,0 +1,42 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.ShardIdSequences;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Runs the change log on every shard, then aligns the id sequences of each
+ * shard with its index.
+ */
+public class ShardedSpringLiquibase extends SpringLiquibase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedSpringLiquibase.class);
+
+    private final List<? extends DataSource> shards;
+    private final int maxShards;
+
+    public ShardedSpringLiquibase(List<? extends DataSource> shards, int maxShards) {
+        this.shards = shards;
+        this.maxShards = maxShards;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            logger.info("Updating database schema of shard {}", shard);
+            setDataSource(shards.get(shard));
+            super.afterPropertiesSet();
+            try {
+                ShardIdSequences.align(shards.get(shard), shard, maxShards);
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Can't align id sequences of shard " + shard, e);
+            }
+        }
+    }
+}
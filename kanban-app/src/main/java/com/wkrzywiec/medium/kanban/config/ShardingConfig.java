@@ -0,0 +1,152 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.ShardRoutingDataSource;
+import com.wkrzywiec.medium.kanban.service.ExportService;
+import com.wkrzywiec.medium.kanban.service.ExportServiceImpl;
+import com.wkrzywiec.medium.kanban.service.KanbanService;
+import com.wkrzywiec.medium.kanban.service.KanbanServiceImpl;
+import com.wkrzywiec.medium.kanban.service.ShardedExportService;
+import com.wkrzywiec.medium.kanban.service.ShardedKanbanService;
+import com.wkrzywiec.medium.kanban.service.ShardedTaskService;
+import com.wkrzywiec.medium.kanban.service.TaskService;
+import com.wkrzywiec.medium.kanban.service.TaskServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import liquibase.integration.spring.SpringLiquibase;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Horizontal sharding. Kanban boards, with their tasks, are spread over the
+ * databases configured with kanban.sharding.shards[n].url (and optionally
+ * username and password, which default to those of spring.datasource),
+ * which then replace the spring.datasource one. All pools share the
+ * spring.datasource.hikari settings and are migrated by Liquibase on
+ * startup. Without shards all work runs on spring.datasource, as one shard.
+ */
+@Configuration
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    public static final String SHARDS_PROPERTY = "kanban.sharding.shards";
+    public static final String SHARD_POOL_PREFIX = "shard-";
+
+    @Bean
+    public ShardRouter shardRouter(Environment environment, @Value("${kanban.sharding.max-shards:16}") int maxShards) {
+        List<DataSourceProperties> shardsProperties = bindShardsProperties(environment);
+        if (shardsProperties.isEmpty()) {
+            return new ShardRouter(1, 1);
+        }
+        logger.info("Spreading Kanban boards over {} shards of at most {}", shardsProperties.size(), maxShards);
+        return new ShardRouter(shardsProperties.size(), maxShards);
+    }
+
+    private static List<DataSourceProperties> bindShardsProperties(Environment environment) {
+        return Binder.get(environment)
+                .bind(SHARDS_PROPERTY, Bindable.listOf(DataSourceProperties.class))
+                .orElse(Collections.emptyList());
+    }
+
+    @Configuration
+    @ConditionalOnProperty(SHARDS_PROPERTY + "[0].url")
+    static class ShardedDataSourceConfiguration {
+
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             MeterRegistry meterRegistry) {
+            Binder binder = Binder.get(environment);
+            List<HikariDataSource> shards = new ArrayList<>();
+            for (DataSourceProperties shardProperties : bindShardsProperties(environment)) {
+                if (shardProperties.getUsername() == null) {
+                    shardProperties.setUsername(properties.determineUsername());
+                    shardProperties.setPassword(properties.determinePassword());
+                }
+                HikariDataSource pool = shardProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+                binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+                pool.setPoolName(SHARD_POOL_PREFIX + shards.size());
+                pool.setMetricRegistry(meterRegistry);
+                shards.add(pool);
+            }
+            return new ShardRoutingDataSource(shards, meterRegistry);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+
+        @Bean
+        public SpringLiquibase liquibase(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                                         @Value("${spring.liquibase.change-log:classpath:/db/changelog/db.changelog-master.xml}") String changeLog) {
+            SpringLiquibase liquibase = new ShardedSpringLiquibase(shardRoutingDataSource.getShards(), shardRouter.getMaxShards());
+            liquibase.setChangeLog(changeLog);
+            return liquibase;
+        }
+
+        /**
+         * Boot only makes JPA wait for its own Liquibase bean, which backs
+         * off when another one is defined, and only knows the schema is
+         * managed by it, so on embedded databases it would let Hibernate
+         * drop and create it.
+         */
+        @Bean
+        public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnLiquibase() {
+            return new EntityManagerFactoryDependsOnPostProcessor("liquibase");
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer schemaManagedByLiquibaseCustomizer() {
+            return properties -> properties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+        }
+
+        @Bean
+        public FilterRegistrationBean<ShardContextFilter> shardContextFilter() {
+            FilterRegistrationBean<ShardContextFilter> registration = new FilterRegistrationBean<>(new ShardContextFilter());
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+            return registration;
+        }
+
+        @Bean
+        @Primary
+        public KanbanService shardedKanbanService(KanbanServiceImpl kanbanService, ShardRouter shardRouter,
+                                                  PlatformTransactionManager transactionManager) {
+            return new ShardedKanbanService(kanbanService, shardRouter, transactionManager);
+        }
+
+        @Bean
+        @Primary
+        public TaskService shardedTaskService(TaskServiceImpl taskService, ShardRouter shardRouter) {
+            return new ShardedTaskService(taskService, shardRouter);
+        }
+
+        @Bean
+        @Primary
+        public ExportService shardedExportService(ExportServiceImpl exportService, ShardRouter shardRouter) {
+            return new ShardedExportService(exportService, shardRouter);
+        }
+    }
+}
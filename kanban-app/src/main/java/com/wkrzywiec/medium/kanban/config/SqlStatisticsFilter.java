@@ -0,0 +1,91 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.repository.SqlStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records SQL statements, fetched rows and JDBC time of each HTTP request
+ * as histograms tagged with the method and URI pattern of the endpoint,
+ * and warns about requests that run more statements than the budget,
+ * which usually means an N+1 query. Only the request thread is measured,
+ * work of async requests (events, reactive API) is not included.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    public static final String STATEMENTS_SUMMARY = "kanban.sql.statements";
+    public static final String ROWS_SUMMARY = "kanban.sql.rows";
+    public static final String JDBC_TIMER = "kanban.sql.time";
+    public static final String BUDGET_EXCEEDED_COUNTER = "kanban.sql.budget.exceeded";
+
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+
+    public SqlStatisticsFilter(MeterRegistry meterRegistry, int statementBudget) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics statistics = SqlStatistics.stop();
+            if (!request.isAsyncStarted()) {
+                record(request, statistics);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+        DistributionSummary.builder(STATEMENTS_SUMMARY)
+                .description("SQL statements run by a single HTTP request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder(ROWS_SUMMARY)
+                .description("Rows fetched by a single HTTP request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder(JDBC_TIMER)
+                .description("Time a single HTTP request spent executing SQL statements")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        if (statistics.getStatements() > statementBudget) {
+            Counter.builder(BUDGET_EXCEEDED_COUNTER)
+                    .description("HTTP requests that ran more SQL statements than the budget")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("{} {} ran {} SQL statements, more than the budget of {}",
+                    request.getMethod(), uri, statistics.getStatements(), statementBudget);
+        }
+    }
+}
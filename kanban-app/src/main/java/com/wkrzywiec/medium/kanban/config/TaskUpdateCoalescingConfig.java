@@ -0,0 +1,27 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.service.TaskUpdateCoalescer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Flushes coalesced task updates ahead of other requests, see
+ * TaskUpdateCoalescerImpl. Reads see coalesced updates right away only on
+ * the instance that accepted them, so with several instances
+ * kanban.coalescing.enabled requires sticky routing of clients.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kanban.coalescing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class TaskUpdateCoalescingConfig implements WebMvcConfigurer {
+
+    private final TaskUpdateCoalescer taskUpdateCoalescer;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TaskUpdateFlushInterceptor(taskUpdateCoalescer));
+    }
+}
@@ -0,0 +1,34 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import com.wkrzywiec.medium.kanban.service.TaskUpdateCoalescer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Writes pending coalesced task updates before every request other than
+ * a task update, so reads and other writes see them, in order. Only updates
+ * pending on this instance are written.
+ */
+public class TaskUpdateFlushInterceptor implements HandlerInterceptor {
+
+    static final String COALESCED_PATTERN = "/tasks/{id}";
+
+    private final TaskUpdateCoalescer taskUpdateCoalescer;
+
+    public TaskUpdateFlushInterceptor(TaskUpdateCoalescer taskUpdateCoalescer) {
+        this.taskUpdateCoalescer = taskUpdateCoalescer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean taskUpdate = "PUT".equals(request.getMethod())
+                && COALESCED_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        if (!taskUpdate) {
+            taskUpdateCoalescer.flush();
+        }
+        return true;
+    }
+}
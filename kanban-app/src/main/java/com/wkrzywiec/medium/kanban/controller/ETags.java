@@ -0,0 +1,33 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+/**
+ * Maps entity versions to ETag values and evaluates If-Match and
+ * If-None-Match request headers against them.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Checks if any of the comma separated entity tags of a conditional
+     * header matches the version. Weak tags are compared by their value.
+     */
+    static boolean matches(String header, Long version) {
+        if (header == null) {
+            return false;
+        }
+        String etag = of(version);
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.replaceFirst("^W/", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,15 +1,37 @@
 package com.wkrzywiec.medium.kanban.controller;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CumulativeFlowDay;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.CycleTimeDay;
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanChanges;
 import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
 import com.wkrzywiec.medium.kanban.model.Task;
 import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatusUpdateDTO;
+import com.wkrzywiec.medium.kanban.model.ThroughputDay;
+import com.wkrzywiec.medium.kanban.service.ExportService;
+import com.wkrzywiec.medium.kanban.service.KanbanEventService;
 import com.wkrzywiec.medium.kanban.service.KanbanService;
+import com.wkrzywiec.medium.kanban.service.TaskFlowService;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,35 +41,81 @@ import org.slf4j.LoggerFactory;
 @RestController
 @RequestMapping("/kanbans")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = { CursorPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG })
 public class KanbanController {
     private static final Logger logger = LoggerFactory.getLogger(KanbanController.class);
 
     private final KanbanService kanbanService;
+    private final ExportService exportService;
+    private final KanbanEventService kanbanEventService;
+    private final TaskFlowService taskFlowService;
 
     @GetMapping("/")
-    @ApiOperation(value="View a list of all Kanban boards", response = Kanban.class, responseContainer = "List")
-    public ResponseEntity<?> getAllKanbans(){
-        logger.info("Received GET request to retrieve all Kanban boards");
+    @ApiOperation(value="View a page of Kanban boards ordered by id, next page cursor is returned in X-Next-Cursor header",
+            response = Kanban.class, responseContainer = "List")
+    public ResponseEntity<?> getAllKanbans(@RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit){
+        logger.info("Received GET request to retrieve Kanban boards after cursor '{}' with limit {}", after, limit);
         try {
-            List<Kanban> kanbanBoards = kanbanService.getAllKanbanBoards();
-            logger.info("Retrieved {} Kanban boards", kanbanBoards.size());
-            return new ResponseEntity<>(kanbanBoards, HttpStatus.OK);
+            CursorPage<Kanban> kanbanBoards = kanbanService.getKanbanBoardsPage(after, limit);
+            logger.info("Retrieved {} Kanban boards", kanbanBoards.getItems().size());
+            return pageResponse(kanbanBoards);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid page request for Kanban boards: {}", e.getMessage());
+            return badRequestResponse(e.getMessage());
         } catch (Exception e) {
             logger.error("Error occurred while fetching all Kanban boards", e);
             return errorResponse();
         }
     }
 
+    @GetMapping("/summary")
+    @ApiOperation(value="View a list of all Kanban boards with number of tasks in each status", response = KanbanSummary.class, responseContainer = "List")
+    public ResponseEntity<?> getKanbanSummaries(){
+        logger.info("Received GET request to retrieve Kanban board summaries");
+        try {
+            List<KanbanSummary> summaries = kanbanService.getKanbanSummaries();
+            logger.info("Retrieved {} Kanban board summaries", summaries.size());
+            return new ResponseEntity<>(summaries, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error occurred while fetching Kanban board summaries", e);
+            return errorResponse();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = ExportService.NDJSON_MEDIA_TYPE)
+    @ApiOperation(value="Export all Kanban boards as newline delimited JSON, one per line")
+    public void exportKanbans(HttpServletResponse response) throws IOException {
+        logger.info("Received GET request to export all Kanban boards");
+        response.setContentType(ExportService.NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        try {
+            long count = exportService.exportAllKanbans(response.getOutputStream());
+            logger.info("Exported {} Kanban boards", count);
+        } catch (Exception e) {
+            logger.error("Error occurred while exporting Kanban boards", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Something went wrong :(");
+            }
+        }
+    }
+
     @GetMapping("/{id}")
-    @ApiOperation(value="Find a Kanban board info by its id", response = Kanban.class)
-    public ResponseEntity<?> getKanban(@PathVariable Long id){
+    @ApiOperation(value="Find a Kanban board info by its id, 304 if it matches If-None-Match header", response = Kanban.class)
+    public ResponseEntity<?> getKanban(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
         logger.info("Received GET request to retrieve Kanban board with id {}", id);
         try {
+            Optional<Long> optVersion = ifNoneMatch == null ? Optional.empty() : kanbanService.getKanbanVersion(id);
+            if (optVersion.isPresent() && ETags.matches(ifNoneMatch, optVersion.get())) {
+                logger.info("Kanban board with id {} not modified", id);
+                return notModifiedResponse(optVersion.get());
+            }
             Optional<Kanban> optKanban = kanbanService.getKanbanById(id);
             if (optKanban.isPresent()) {
                 logger.info("Found Kanban board with id {}: {}", id, optKanban.get());
-                return new ResponseEntity<>(optKanban.get(), HttpStatus.OK);
+                return versionedResponse(optKanban.get(), optKanban.get().getVersion(), HttpStatus.OK);
             } else {
                 logger.warn("Kanban board with id {} not found", id);
                 return noKanbanFoundResponse(id);
@@ -58,6 +126,103 @@ public class KanbanController {
         }
     }
 
+    @GetMapping("/{id}/changes")
+    @ApiOperation(value="View tasks created, updated or deleted since provided revision of a Kanban board, all tasks if no revision is provided", response = KanbanChanges.class)
+    public ResponseEntity<?> getKanbanChanges(@PathVariable Long id, @RequestParam(defaultValue = "-1") Long since){
+        logger.info("Received GET request to retrieve changes of Kanban board with id {} since revision {}", id, since);
+        try {
+            Optional<KanbanChanges> optChanges = kanbanService.getKanbanChanges(id, since);
+            if (optChanges.isPresent()) {
+                logger.info("Found {} changed and {} deleted tasks of Kanban board with id {}",
+                        optChanges.get().getTasks().size(), optChanges.get().getDeletedTasks().size(), id);
+                return new ResponseEntity<>(optChanges.get(), HttpStatus.OK);
+            } else {
+                logger.warn("Kanban board with id {} not found", id);
+                return noKanbanFoundResponse(id);
+            }
+        } catch (Exception e) {
+            logger.error("Error occurred while fetching changes of Kanban board with id {}", id, e);
+            return errorResponse();
+        }
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value="Subscribe to Server-Sent Events with tasks created, updated, moved or deleted on a Kanban board, " +
+            "event id is the board revision to pass as since parameter of changes request after reconnecting", response = KanbanEvent.class)
+    public ResponseEntity<SseEmitter> subscribeToKanbanEvents(@PathVariable Long id){
+        logger.info("Received GET request to subscribe to events of Kanban board with id {}", id);
+        try {
+            Optional<Long> optVersion = kanbanService.getKanbanVersion(id);
+            if (optVersion.isPresent()) {
+                logger.info("Subscribing to events of Kanban board with id {}, {} subscribers connected", id, kanbanEventService.getSubscriberCount());
+                return ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .header("X-Accel-Buffering", "no")
+                        .body(kanbanEventService.subscribe(id, optVersion.get()));
+            } else {
+                logger.warn("Kanban board with id {} not found", id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            logger.error("Error occurred while subscribing to events of Kanban board with id {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{id}/reports/cumulative-flow")
+    @ApiOperation(value="View number of tasks in each status of a Kanban board at the end of each day (UTC) from and to provided dates, " +
+            "last 30 days by default", response = CumulativeFlowDay.class, responseContainer = "List")
+    public ResponseEntity<?> getCumulativeFlow(@PathVariable Long id,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        logger.info("Received GET request to retrieve cumulative flow of Kanban board with id {} from {} to {}", id, from, to);
+        try {
+            return reportResponse(id, taskFlowService.getCumulativeFlow(id, from, to));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid cumulative flow request for Kanban board with id {}: {}", id, e.getMessage());
+            return badRequestResponse(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while fetching cumulative flow of Kanban board with id {}", id, e);
+            return errorResponse();
+        }
+    }
+
+    @GetMapping("/{id}/reports/throughput")
+    @ApiOperation(value="View number of tasks of a Kanban board completed each day (UTC) from and to provided dates, " +
+            "last 30 days by default", response = ThroughputDay.class, responseContainer = "List")
+    public ResponseEntity<?> getThroughput(@PathVariable Long id,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        logger.info("Received GET request to retrieve throughput of Kanban board with id {} from {} to {}", id, from, to);
+        try {
+            return reportResponse(id, taskFlowService.getThroughput(id, from, to));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid throughput request for Kanban board with id {}: {}", id, e.getMessage());
+            return badRequestResponse(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while fetching throughput of Kanban board with id {}", id, e);
+            return errorResponse();
+        }
+    }
+
+    @GetMapping("/{id}/reports/cycle-time")
+    @ApiOperation(value="View average and longest time from start of work to DONE of tasks of a Kanban board completed each day (UTC) " +
+            "from and to provided dates, last 30 days by default", response = CycleTimeDay.class, responseContainer = "List")
+    public ResponseEntity<?> getCycleTime(@PathVariable Long id,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        logger.info("Received GET request to retrieve cycle time of Kanban board with id {} from {} to {}", id, from, to);
+        try {
+            return reportResponse(id, taskFlowService.getCycleTime(id, from, to));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid cycle time request for Kanban board with id {}: {}", id, e.getMessage());
+            return badRequestResponse(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while fetching cycle time of Kanban board with id {}", id, e);
+            return errorResponse();
+        }
+    }
+
     @GetMapping("")
     @ApiOperation(value="Find a Kanban board info by its title", response = Kanban.class)
     public ResponseEntity<?> getKanbanByTitle(@RequestParam String title){
@@ -92,19 +257,25 @@ public class KanbanController {
     }
 
     @PutMapping("/{id}")
-    @ApiOperation(value="Update a Kanban board with specific id", response = Kanban.class)
-    public ResponseEntity<?> updateKanban(@PathVariable Long id, @RequestBody KanbanDTO kanbanDTO){
+    @ApiOperation(value="Update a Kanban board with specific id, 412 if it doesn't match If-Match header", response = Kanban.class)
+    public ResponseEntity<?> updateKanban(@PathVariable Long id, @RequestBody KanbanDTO kanbanDTO,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         logger.info("Received PUT request to update Kanban board with id: {}, new data: {}", id, kanbanDTO);
         try {
             Optional<Kanban> optKanban = kanbanService.getKanbanById(id);
             if (optKanban.isPresent()) {
+                if (ifMatch != null && !ETags.matches(ifMatch, optKanban.get().getVersion())) {
+                    return preconditionFailedResponse(id);
+                }
                 Kanban updatedKanban = kanbanService.updateKanban(optKanban.get(), kanbanDTO);
                 logger.info("Kanban board with id {} updated successfully: {}", id, updatedKanban);
-                return new ResponseEntity<>(updatedKanban, HttpStatus.OK);
+                return versionedResponse(updatedKanban, updatedKanban.getVersion(), HttpStatus.OK);
             } else {
                 logger.warn("No Kanban board found with id: {}", id);
                 return noKanbanFoundResponse(id);
             }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictResponse(id);
         } catch (Exception e) {
             logger.error("Error occurred while updating Kanban board with id: {} and data: {}", id, kanbanDTO, e);
             return errorResponse();
@@ -112,12 +283,16 @@ public class KanbanController {
     }
 
     @DeleteMapping("/{id}")
-    @ApiOperation(value="Delete Kanban board with specific id", response = String.class)
-    public ResponseEntity<?> deleteKanban(@PathVariable Long id){
+    @ApiOperation(value="Delete Kanban board with specific id, 412 if it doesn't match If-Match header", response = String.class)
+    public ResponseEntity<?> deleteKanban(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         logger.info("Received DELETE request to delete Kanban board with id: {}", id);
         try {
             Optional<Kanban> optKanban = kanbanService.getKanbanById(id);
             if (optKanban.isPresent()) {
+                if (ifMatch != null && !ETags.matches(ifMatch, optKanban.get().getVersion())) {
+                    return preconditionFailedResponse(id);
+                }
                 kanbanService.deleteKanban(optKanban.get());
                 logger.info("Kanban board with id: {} was deleted successfully", id);
                 return new ResponseEntity<>(String.format("Kanban with id: %d was deleted", id), HttpStatus.OK);
@@ -125,6 +300,8 @@ public class KanbanController {
                 logger.warn("No Kanban board found with id: {}", id);
                 return noKanbanFoundResponse(id);
             }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictResponse(id);
         } catch (Exception e) {
             logger.error("Error occurred while deleting Kanban board with id: {}", id, e);
             return errorResponse();
@@ -132,14 +309,20 @@ public class KanbanController {
     }
 
     @GetMapping("/{kanbanId}/tasks/")
-    @ApiOperation(value="View a list of all tasks for a Kanban with provided id", response = Task.class, responseContainer = "List")
-    public ResponseEntity<?> getAllTasksInKanban(@PathVariable Long kanbanId){
+    @ApiOperation(value="View a list of all tasks for a Kanban with provided id, 304 if board matches If-None-Match header", response = Task.class, responseContainer = "List")
+    public ResponseEntity<?> getAllTasksInKanban(@PathVariable Long kanbanId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
         logger.info("Received GET request to retrieve all tasks for Kanban with id: {}", kanbanId);
         try {
+            Optional<Long> optVersion = ifNoneMatch == null ? Optional.empty() : kanbanService.getKanbanVersion(kanbanId);
+            if (optVersion.isPresent() && ETags.matches(ifNoneMatch, optVersion.get())) {
+                logger.info("Tasks of Kanban board with id {} not modified", kanbanId);
+                return notModifiedResponse(optVersion.get());
+            }
             Optional<Kanban> optKanban = kanbanService.getKanbanById(kanbanId);
             if (optKanban.isPresent()) {
                 logger.info("Found Kanban board with id: {}. Returning all tasks.", kanbanId);
-                return new ResponseEntity<>(optKanban.get().getTasks(), HttpStatus.OK);
+                return versionedResponse(optKanban.get().getTasks(), optKanban.get().getVersion(), HttpStatus.OK);
             } else {
                 logger.warn("No Kanban board found with id: {}. Unable to retrieve tasks.", kanbanId);
                 return noKanbanFoundResponse(kanbanId);
@@ -151,19 +334,114 @@ public class KanbanController {
     }
 
     @PostMapping("/{kanbanId}/tasks/")
-    @ApiOperation(value="Save new Task and assign it to Kanban board", response = Kanban.class)
-    public ResponseEntity<?> createTaskAssignedToKanban(@PathVariable Long kanbanId, @RequestBody TaskDTO taskDTO){
+    @ApiOperation(value="Save new Task and assign it to Kanban board, returns created Task or whole Kanban board if fullKanban is true", response = Task.class)
+    public ResponseEntity<?> createTaskAssignedToKanban(@PathVariable Long kanbanId, @RequestBody TaskDTO taskDTO,
+                                                        @RequestParam(defaultValue = "false") boolean fullKanban){
         logger.info("Received POST request to create a new task for Kanban with id: {}", kanbanId);
         try {
-            Kanban createdKanban = kanbanService.addNewTaskToKanban(kanbanId, taskDTO);
-            logger.info("New task created and assigned to Kanban with id: {}", kanbanId);
-            return new ResponseEntity<>(createdKanban, HttpStatus.CREATED);
+            Optional<Task> optTask = kanbanService.addNewTaskToKanban(kanbanId, taskDTO);
+            if (!optTask.isPresent()) {
+                logger.warn("No Kanban board found with id: {}. Unable to create task.", kanbanId);
+                return noKanbanFoundResponse(kanbanId);
+            }
+            logger.info("New task with id {} created and assigned to Kanban with id: {}", optTask.get().getId(), kanbanId);
+            if (fullKanban) {
+                Kanban kanban = kanbanService.getKanbanById(kanbanId).get();
+                return versionedResponse(kanban, kanban.getVersion(), HttpStatus.CREATED);
+            }
+            return versionedResponse(optTask.get(), optTask.get().getVersion(), HttpStatus.CREATED);
         } catch (Exception e) {
             logger.error("Error occurred while creating and assigning task to Kanban with id: {}", kanbanId, e);
             return errorResponse();
         }
     }
 
+    @PostMapping("/{kanbanId}/tasks/batch")
+    @ApiOperation(value="Save list of new Tasks and assign them to Kanban board, returns ids of created tasks", response = Long.class, responseContainer = "List")
+    public ResponseEntity<?> createTasksAssignedToKanban(@PathVariable Long kanbanId, @RequestBody List<TaskDTO> taskDTOs){
+        logger.info("Received POST request to create {} new tasks for Kanban with id: {}", taskDTOs.size(), kanbanId);
+        try {
+            Optional<List<Long>> optTaskIds = kanbanService.addNewTasksToKanban(kanbanId, taskDTOs);
+            if (optTaskIds.isPresent()) {
+                logger.info("{} new tasks created and assigned to Kanban with id: {}", optTaskIds.get().size(), kanbanId);
+                return new ResponseEntity<>(optTaskIds.get(), HttpStatus.CREATED);
+            } else {
+                logger.warn("No Kanban board found with id: {}. Unable to create tasks.", kanbanId);
+                return noKanbanFoundResponse(kanbanId);
+            }
+        } catch (Exception e) {
+            logger.error("Error occurred while creating and assigning tasks to Kanban with id: {}", kanbanId, e);
+            return errorResponse();
+        }
+    }
+
+    @PatchMapping("/{kanbanId}/tasks/status")
+    @ApiOperation(value="Move all or filtered tasks of a Kanban board to a status with a single update, returns number of updated tasks", response = BulkUpdateResult.class)
+    public ResponseEntity<?> updateTasksStatusInKanban(@PathVariable Long kanbanId, @RequestBody TaskStatusUpdateDTO statusUpdateDTO){
+        logger.info("Received PATCH request to move tasks of Kanban with id: {} to status {}", kanbanId, statusUpdateDTO.getStatus());
+        try {
+            Optional<BulkUpdateResult> optResult = kanbanService.updateTasksStatus(kanbanId, statusUpdateDTO);
+            if (optResult.isPresent()) {
+                logger.info("{} tasks of Kanban with id: {} moved to status {}", optResult.get().getUpdated(), kanbanId, statusUpdateDTO.getStatus());
+                return versionedResponse(optResult.get(), optResult.get().getRevision(), HttpStatus.OK);
+            } else {
+                logger.warn("No Kanban board found with id: {}. Unable to move tasks.", kanbanId);
+                return noKanbanFoundResponse(kanbanId);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid status update request for tasks of Kanban with id {}: {}", kanbanId, e.getMessage());
+            return badRequestResponse(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error occurred while moving tasks of Kanban with id: {}", kanbanId, e);
+            return errorResponse();
+        }
+    }
+
+    private <T> ResponseEntity<List<T>> pageResponse(CursorPage<T> page){
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            headers.set(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getItems(), headers, HttpStatus.OK);
+    }
+
+    private <T> ResponseEntity<?> reportResponse(Long id, Optional<List<T>> optReport){
+        if (optReport.isPresent()) {
+            logger.info("Reporting {} days of Kanban board with id {}", optReport.get().size(), id);
+            return new ResponseEntity<>(optReport.get(), HttpStatus.OK);
+        }
+        logger.warn("Kanban board with id {} not found", id);
+        return noKanbanFoundResponse(id);
+    }
+
+    private ResponseEntity<String> badRequestResponse(String message){
+        return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
+    }
+
+    private <T> ResponseEntity<T> versionedResponse(T body, Long version, HttpStatus status){
+        return ResponseEntity.status(status)
+                .eTag(ETags.of(version))
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    private ResponseEntity<?> notModifiedResponse(Long version){
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(ETags.of(version))
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    private ResponseEntity<String> preconditionFailedResponse(Long id){
+        logger.warn("Kanban board with id {} does not match If-Match header", id);
+        return new ResponseEntity<>("Kanban with id: " + id + " was modified in the meantime", HttpStatus.PRECONDITION_FAILED);
+    }
+
+    private ResponseEntity<String> conflictResponse(Long id){
+        logger.warn("Kanban board with id {} was modified concurrently", id);
+        return new ResponseEntity<>("Kanban with id: " + id + " was modified concurrently", HttpStatus.CONFLICT);
+    }
+
     private ResponseEntity<String> errorResponse(){
         logger.error("Internal server error occurred.");
         return new ResponseEntity<>("Something went wrong :(", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,77 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.service.ReactiveKanbanService;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Read-only counterpart of KanbanController that doesn't hold a Tomcat
+ * thread while it waits for the database. Lists are streamed as JSON
+ * lines, one element at a time, when application/stream+json is accepted.
+ */
+@RestController
+@RequestMapping("/reactive/kanbans")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = { HttpHeaders.ETAG })
+public class ReactiveKanbanController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveKanbanController.class);
+
+    private final ReactiveKanbanService reactiveKanbanService;
+
+    @GetMapping(value = "/", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @ApiOperation(value="View summaries of all Kanban boards without blocking a request thread",
+            response = KanbanSummary.class, responseContainer = "List")
+    public Flux<KanbanSummary> getAllKanbans() {
+        logger.info("Retrieving Kanban board summaries reactively");
+        return reactiveKanbanService.getKanbanSummaries();
+    }
+
+    @GetMapping("/{id}")
+    @ApiOperation(value="Find a Kanban board info by its id without blocking a request thread", response = Kanban.class)
+    public Mono<ResponseEntity<?>> getKanban(@PathVariable Long id) {
+        logger.info("Retrieving Kanban board with id {} reactively", id);
+        return reactiveKanbanService.getKanbanById(id)
+                .<ResponseEntity<?>>map(kanban -> ResponseEntity.ok()
+                        .eTag(ETags.of(kanban.getVersion()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(kanban))
+                .defaultIfEmpty(noKanbanFoundResponse(id));
+    }
+
+    @GetMapping(value = "/{id}/tasks", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @ApiOperation(value="Stream all tasks of a Kanban board ordered by id, read page by page as the client consumes them",
+            response = Task.class, responseContainer = "List")
+    public Mono<ResponseEntity<Flux<Task>>> getKanbanTasks(@PathVariable Long id) {
+        logger.info("Streaming tasks of Kanban board with id {}", id);
+        return reactiveKanbanService.getKanbanTasks(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler({ RejectedExecutionException.class, TimeoutException.class })
+    public ResponseEntity<String> overloadedResponse(Exception e) {
+        logger.warn("Reactive Kanban board request rejected: {}", e.toString());
+        return new ResponseEntity<>("Database is busy, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private ResponseEntity<String> noKanbanFoundResponse(Long id) {
+        return new ResponseEntity<>("No kanban found with id: " + id, HttpStatus.NOT_FOUND);
+    }
+}
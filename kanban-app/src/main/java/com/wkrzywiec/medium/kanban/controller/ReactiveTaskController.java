@@ -0,0 +1,64 @@
+package com.wkrzywiec.medium.kanban.controller;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.service.ReactiveTaskService;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Read-only counterpart of TaskController that doesn't hold a Tomcat
+ * thread while it waits for the database.
+ */
+@RestController
+@RequestMapping("/reactive/tasks")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = { HttpHeaders.ETAG })
+public class ReactiveTaskController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTaskController.class);
+
+    private final ReactiveTaskService reactiveTaskService;
+
+    @GetMapping(value = "/", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @ApiOperation(value="Stream all tasks ordered by id, read page by page as the client consumes them",
+            response = Task.class, responseContainer = "List")
+    public Flux<Task> getAllTasks() {
+        logger.info("Streaming all tasks");
+        return reactiveTaskService.getAllTasks();
+    }
+
+    @GetMapping("/{id}")
+    @ApiOperation(value="Find a task info by its id without blocking a request thread", response = Task.class)
+    public Mono<ResponseEntity<?>> getTask(@PathVariable Long id) {
+        logger.info("Retrieving task with id {} reactively", id);
+        return reactiveTaskService.getTaskById(id)
+                .<ResponseEntity<?>>map(task -> ResponseEntity.ok()
+                        .eTag(ETags.of(task.getVersion()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(task))
+                .defaultIfEmpty(noTaskFoundResponse(id));
+    }
+
+    @ExceptionHandler({ RejectedExecutionException.class, TimeoutException.class })
+    public ResponseEntity<String> overloadedResponse(Exception e) {
+        logger.warn("Reactive task request rejected: {}", e.toString());
+        return new ResponseEntity<>("Database is busy, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private ResponseEntity<String> noTaskFoundResponse(Long id) {
+        return new ResponseEntity<>("No task found with id: " + id, HttpStatus.NOT_FOUND);
+    }
+}
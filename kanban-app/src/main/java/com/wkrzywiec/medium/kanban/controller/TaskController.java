@@ -1,52 +1,130 @@
 package com.wkrzywiec.medium.kanban.controller;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
 import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskArchive;
 import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskPositionDTO;
+import com.wkrzywiec.medium.kanban.service.ExportService;
+import com.wkrzywiec.medium.kanban.service.TaskArchiveService;
 import com.wkrzywiec.medium.kanban.service.TaskService;
+import com.wkrzywiec.medium.kanban.service.TaskUpdateCoalescer;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/tasks")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = { CursorPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG })
 public class TaskController {
 
     private final TaskService taskService;
+    private final ExportService exportService;
+    private final TaskArchiveService taskArchiveService;
+    private final TaskUpdateCoalescer taskUpdateCoalescer;
     private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
 
     @GetMapping("/")
-    @ApiOperation(value="View a list of all tasks", response = Task.class, responseContainer = "List")
-    public ResponseEntity<?> getAllTasks(){
+    @ApiOperation(value="View a page of tasks ordered by id, next page cursor is returned in X-Next-Cursor header",
+            response = Task.class, responseContainer = "List")
+    public ResponseEntity<?> getAllTasks(@RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit){
         try {
-            logger.info("Retrieving all tasks");
-            return new ResponseEntity<>(
-                    taskService.getAllTasks(),
-                    HttpStatus.OK);
+            logger.info("Retrieving tasks after cursor '{}' with limit {}", after, limit);
+            return pageResponse(taskService.getTasksPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid page request for tasks: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Error occurred while retrieving all tasks", e);
             return errorResponse();
         }
     }
 
+    @GetMapping("/search")
+    @ApiOperation(value="Search tasks by title and description, best matches first, next page cursor is returned in X-Next-Cursor header",
+            response = Task.class, responseContainer = "List")
+    public ResponseEntity<?> searchTasks(@RequestParam String q,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit){
+        try {
+            logger.info("Searching tasks matching '{}' after cursor '{}' with limit {}", q, after, limit);
+            return pageResponse(taskService.searchTasks(q, after, limit));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search request for tasks: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while searching tasks", e);
+            return errorResponse();
+        }
+    }
+
+    @GetMapping("/archive")
+    @ApiOperation(value="View a page of archived tasks, optionally of a single Kanban board, ordered by id, next page cursor is returned in X-Next-Cursor header",
+            response = TaskArchive.class, responseContainer = "List")
+    public ResponseEntity<?> getArchivedTasks(@RequestParam(required = false) Long kanbanId,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit){
+        try {
+            logger.info("Retrieving archived tasks of Kanban board with id {} after cursor '{}' with limit {}", kanbanId, after, limit);
+            return pageResponse(taskArchiveService.getArchivedTasksPage(kanbanId, after, limit));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid page request for archived tasks: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while retrieving archived tasks", e);
+            return errorResponse();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = ExportService.NDJSON_MEDIA_TYPE)
+    @ApiOperation(value="Export all tasks as newline delimited JSON, one per line")
+    public void exportTasks(HttpServletResponse response) throws IOException {
+        logger.info("Received GET request to export all tasks");
+        response.setContentType(ExportService.NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        try {
+            long count = exportService.exportAllTasks(response.getOutputStream());
+            logger.info("Exported {} tasks", count);
+        } catch (Exception e) {
+            logger.error("Error occurred while exporting tasks", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Something went wrong :(");
+            }
+        }
+    }
+
     @GetMapping("/{id}")
-    @ApiOperation(value="Find a task info by its id", response = Task.class)
-    public ResponseEntity<?> getTask(@PathVariable Long id){
+    @ApiOperation(value="Find a task info by its id, 304 if it matches If-None-Match header", response = Task.class)
+    public ResponseEntity<?> getTask(@PathVariable Long id,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
         try {
             logger.info("Retrieving task with id: {}", id);
+            Optional<Long> optVersion = ifNoneMatch == null ? Optional.empty() : taskService.getTaskVersion(id);
+            if (optVersion.isPresent() && ETags.matches(ifNoneMatch, optVersion.get())) {
+                logger.info("Task with id {} not modified", id);
+                return notModifiedResponse(optVersion.get());
+            }
             Optional<Task> optTask = taskService.getTaskById(id);
             if (optTask.isPresent()) {
                 logger.info("Task with id {} found", id);
-                return new ResponseEntity<>(
-                        optTask.get(),
-                        HttpStatus.OK);
+                return versionedResponse(optTask.get(), optTask.get().getVersion(), HttpStatus.OK);
             } else {
                 logger.warn("No task found with id: {}", id);
                 return noTaskFoundResponse(id);
@@ -93,18 +171,36 @@ public class TaskController {
     }
 
     @PutMapping("/{id}")
-    @ApiOperation(value="Update a task with specific id", response = Task.class)
-    public ResponseEntity<?> updateTask(@PathVariable Long id, @RequestBody TaskDTO taskDTO){
+    @ApiOperation(value="Update a task with specific id, 412 if it doesn't match If-Match header; " +
+            "if updates are coalesced, 202 with all pending changes of the task instead", response = Task.class)
+    public ResponseEntity<?> updateTask(@PathVariable Long id, @RequestBody TaskDTO taskDTO,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         try {
+            if (ifMatch != null) {
+                // conditional updates are checked against the version with pending updates written
+                taskUpdateCoalescer.flush();
+            }
             Optional<Task> optTask = taskService.getTaskById(id);
             if (optTask.isPresent()) {
+                if (ifMatch != null && !ETags.matches(ifMatch, optTask.get().getVersion())) {
+                    return preconditionFailedResponse(id);
+                }
+                if (ifMatch == null) {
+                    Optional<TaskDTO> pendingTaskDTO = taskUpdateCoalescer.submit(id, taskDTO);
+                    if (pendingTaskDTO.isPresent()) {
+                        logger.info("Update of task with id {} queued, pending changes: {}", id, pendingTaskDTO.get());
+                        return new ResponseEntity<>(pendingTaskDTO.get(), HttpStatus.ACCEPTED);
+                    }
+                }
                 logger.info("Updating task with id {}: {}", id, taskDTO);
                 Task updatedTask = taskService.updateTask(optTask.get(), taskDTO);
                 logger.info("Task with id {} updated: {}", id, updatedTask);
-                return new ResponseEntity<>(updatedTask, HttpStatus.OK);
+                return versionedResponse(updatedTask, updatedTask.getVersion(), HttpStatus.OK);
             } else {
                 return noTaskFoundResponse(id);
             }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictResponse(id);
         } catch (Exception e) {
             logger.error("Error occurred while updating task with id " + id, e);
             return errorResponse();
@@ -112,11 +208,15 @@ public class TaskController {
     }
 
     @DeleteMapping("/{id}")
-    @ApiOperation(value="Delete Task with specific id", response = String.class)
-    public ResponseEntity<?> deleteTask(@PathVariable Long id){
+    @ApiOperation(value="Delete Task with specific id, 412 if it doesn't match If-Match header", response = String.class)
+    public ResponseEntity<?> deleteTask(@PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         try {
             Optional<Task> optTask = taskService.getTaskById(id);
             if (optTask.isPresent()) {
+                if (ifMatch != null && !ETags.matches(ifMatch, optTask.get().getVersion())) {
+                    return preconditionFailedResponse(id);
+                }
                 logger.info("Deleting task with id {}", id);
                 taskService.deleteTask(optTask.get());
                 logger.info("Task with id {} deleted", id);
@@ -125,12 +225,93 @@ public class TaskController {
                 logger.warn("Task with id {} not found for deletion", id);
                 return noTaskFoundResponse(id);
             }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictResponse(id);
         } catch (Exception e) {
             logger.error("Error occurred while deleting task with id " + id, e);
             return errorResponse();
         }
     }
 
+    @PutMapping("/{id}/position")
+    @ApiOperation(value="Move a task with specific id right after another task of a column, or to its top when no task is provided", response = Task.class)
+    public ResponseEntity<?> moveTaskPosition(@PathVariable Long id, @RequestBody TaskPositionDTO taskPositionDTO){
+        try {
+            Optional<Task> optTask = taskService.getTaskById(id);
+            if (optTask.isPresent()) {
+                logger.info("Moving task with id {}: {}", id, taskPositionDTO);
+                Task movedTask = taskService.moveTaskPosition(optTask.get(), taskPositionDTO);
+                logger.info("Task with id {} moved: {}", id, movedTask);
+                return versionedResponse(movedTask, movedTask.getVersion(), HttpStatus.OK);
+            } else {
+                return noTaskFoundResponse(id);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid position request for task with id {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictResponse(id);
+        } catch (Exception e) {
+            logger.error("Error occurred while moving task with id " + id, e);
+            return errorResponse();
+        }
+    }
+
+    @PostMapping("/move")
+    @ApiOperation(value="Move tasks with provided ids to another Kanban board with a single update, returns number of moved tasks", response = BulkUpdateResult.class)
+    public ResponseEntity<?> moveTasks(@RequestBody TaskMoveDTO taskMoveDTO){
+        try {
+            logger.info("Moving tasks {} to Kanban board with id {}", taskMoveDTO.getTaskIds(), taskMoveDTO.getKanbanId());
+            Optional<BulkUpdateResult> optResult = taskService.moveTasks(taskMoveDTO);
+            if (optResult.isPresent()) {
+                logger.info("{} tasks moved to Kanban board with id {}", optResult.get().getUpdated(), taskMoveDTO.getKanbanId());
+                return new ResponseEntity<>(optResult.get(), HttpStatus.OK);
+            } else {
+                String errorMessage = "No kanban found with id: " + taskMoveDTO.getKanbanId();
+                logger.warn(errorMessage);
+                return new ResponseEntity<>(errorMessage, HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid move request for tasks: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while moving tasks to Kanban board with id {}", taskMoveDTO.getKanbanId(), e);
+            return errorResponse();
+        }
+    }
+
+    private <T> ResponseEntity<List<T>> pageResponse(CursorPage<T> page){
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            headers.set(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getItems(), headers, HttpStatus.OK);
+    }
+
+    private <T> ResponseEntity<T> versionedResponse(T body, Long version, HttpStatus status){
+        return ResponseEntity.status(status)
+                .eTag(ETags.of(version))
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    private ResponseEntity<?> notModifiedResponse(Long version){
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(ETags.of(version))
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    private ResponseEntity<String> preconditionFailedResponse(Long id){
+        logger.warn("Task with id {} does not match If-Match header", id);
+        return new ResponseEntity<>("Task with id: " + id + " was modified in the meantime", HttpStatus.PRECONDITION_FAILED);
+    }
+
+    private ResponseEntity<String> conflictResponse(Long id){
+        logger.warn("Task with id {} was modified concurrently", id);
+        return new ResponseEntity<>("Task with id: " + id + " was modified concurrently", HttpStatus.CONFLICT);
+    }
+
     private ResponseEntity<String> errorResponse(){
         logger.error("Something went wrong");
         return new ResponseEntity<>("Something went wrong :(", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,18 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateResult {
+
+    @ApiModelProperty(position = 1, notes = "Number of updated tasks")
+    private int updated;
+
+    @ApiModelProperty(position = 2, notes = "Revision of a target Kanban board after the update")
+    private Long revision;
+}
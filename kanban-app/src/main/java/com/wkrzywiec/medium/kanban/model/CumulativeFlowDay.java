@@ -0,0 +1,44 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CumulativeFlowDay {
+
+    @ApiModelProperty(position = 1)
+    private LocalDate date;
+
+    @ApiModelProperty(position = 2)
+    private long todoCount;
+
+    @ApiModelProperty(position = 3)
+    private long inProgressCount;
+
+    @ApiModelProperty(position = 4)
+    private long doneCount;
+
+    public CumulativeFlowDay(LocalDate date) {
+        this.date = date;
+    }
+
+    public void addTaskCount(TaskStatus status, long count) {
+        switch (status) {
+            case TODO:
+                todoCount += count;
+                break;
+            case INPROGRESS:
+                inProgressCount += count;
+                break;
+            case DONE:
+                doneCount += count;
+                break;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String DEFAULT_LIMIT = "100";
+    public static final int MAX_LIMIT = 1000;
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.valueOf(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    public static int normalizeLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+
+    /**
+     * Merges pages read after the same id cursor from several sources, each
+     * sorted by id, into one page with the items of the lowest ids.
+     */
+    public static <T> CursorPage<T> merge(List<CursorPage<T>> pages, Function<T, Long> idGetter, int limit) {
+        int pageSize = normalizeLimit(limit);
+        List<T> items = pages.stream()
+                .flatMap(page -> page.getItems().stream())
+                .sorted(Comparator.comparing(idGetter))
+                .collect(Collectors.toList());
+        boolean hasNext = items.size() > pageSize || pages.stream().anyMatch(CursorPage::hasNext);
+        if (items.size() > pageSize) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+        }
+        String nextCursor = hasNext && !items.isEmpty() ? encodeCursor(idGetter.apply(items.get(items.size() - 1))) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+}
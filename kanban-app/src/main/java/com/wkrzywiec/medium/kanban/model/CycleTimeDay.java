@@ -0,0 +1,26 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleTimeDay {
+
+    @ApiModelProperty(position = 1)
+    private LocalDate date;
+
+    @ApiModelProperty(position = 2)
+    private long completed;
+
+    @ApiModelProperty(position = 3)
+    private long averageSeconds;
+
+    @ApiModelProperty(position = 4)
+    private long maxSeconds;
+}
@@ -5,6 +5,10 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +19,8 @@ import java.util.Objects;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @Table(name ="kanban")
 @JsonIdentityInfo(
@@ -35,11 +41,18 @@ public class Kanban {
 
     @OneToMany(
             cascade = {CascadeType.ALL},
-            fetch = FetchType.EAGER)
+            fetch = FetchType.LAZY)
     @JoinColumn(name = "kanban_id")
+    @OrderBy("status ASC, position ASC")
+    @OptimisticLock(excluded = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ApiModelProperty(position = 3)
     private List<Task> tasks;
 
+    @Version
+    @ApiModelProperty(position = 4, readOnly = true)
+    private Long version;
+
     public void addTask(Task task) {
         logger.info("Adding task to kanban: {}", task);
         if (Objects.isNull(tasks)) {
@@ -48,4 +61,14 @@ public class Kanban {
         tasks.add(task);
         logger.info("Task added successfully: {}", task);
     }
+
+    /**
+     * Prints only the id and number of tasks, so logging a board never
+     * walks (or lazily loads) its whole task list.
+     */
+    @Override
+    public String toString() {
+        String tasksSize = tasks != null && Hibernate.isInitialized(tasks) ? String.valueOf(tasks.size()) : "?";
+        return "Kanban(id=" + id + ", tasks=" + tasksSize + ")";
+    }
 }
@@ -0,0 +1,26 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KanbanChanges {
+
+    @ApiModelProperty(position = 1)
+    private Long kanbanId;
+
+    @ApiModelProperty(position = 2, notes = "Revision to pass as since parameter of the next request")
+    private Long revision;
+
+    @ApiModelProperty(position = 3, notes = "Tasks created or updated since requested revision")
+    private List<Task> tasks;
+
+    @ApiModelProperty(position = 4, notes = "Tasks deleted since requested revision")
+    private List<TaskTombstone> deletedTasks;
+}
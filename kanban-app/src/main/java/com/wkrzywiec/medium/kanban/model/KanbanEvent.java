@@ -0,0 +1,49 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KanbanEvent {
+
+    public enum Type {
+        TASK_CREATED, TASK_UPDATED, TASK_MOVED, TASK_DELETED
+    }
+
+    @ApiModelProperty(position = 1)
+    private Type type;
+
+    @ApiModelProperty(position = 2)
+    private Long kanbanId;
+
+    @ApiModelProperty(position = 3, notes = "Revision of a Kanban board after the change, also sent as event id")
+    private Long revision;
+
+    @ApiModelProperty(position = 4, notes = "Tasks created or updated by the change")
+    private List<Task> tasks;
+
+    @ApiModelProperty(position = 5, notes = "Tasks deleted by the change")
+    private List<TaskTombstone> deletedTasks;
+
+    public static KanbanEvent tasksCreated(Long kanbanId, Long revision, List<Task> tasks) {
+        return new KanbanEvent(Type.TASK_CREATED, kanbanId, revision, tasks, new ArrayList<>());
+    }
+
+    public static KanbanEvent taskUpdated(Type type, Task task) {
+        return new KanbanEvent(type, task.getKanbanId(), task.getRevision(),
+                Collections.singletonList(task), new ArrayList<>());
+    }
+
+    public static KanbanEvent taskDeleted(TaskTombstone deletedTask) {
+        return new KanbanEvent(Type.TASK_DELETED, deletedTask.getKanbanId(), deletedTask.getRevision(),
+                new ArrayList<>(), Collections.singletonList(deletedTask));
+    }
+}
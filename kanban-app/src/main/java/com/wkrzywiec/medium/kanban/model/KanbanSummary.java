@@ -0,0 +1,49 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KanbanSummary {
+
+    @ApiModelProperty(position = 1)
+    private Long id;
+
+    @ApiModelProperty(position = 2)
+    private String title;
+
+    @ApiModelProperty(position = 3)
+    private long todoCount;
+
+    @ApiModelProperty(position = 4)
+    private long inProgressCount;
+
+    @ApiModelProperty(position = 5)
+    private long doneCount;
+
+    public KanbanSummary(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+
+    public void addTaskCount(TaskStatus status, long count) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case TODO:
+                todoCount += count;
+                break;
+            case INPROGRESS:
+                inProgressCount += count;
+                break;
+            case DONE:
+                doneCount += count;
+                break;
+        }
+    }
+}
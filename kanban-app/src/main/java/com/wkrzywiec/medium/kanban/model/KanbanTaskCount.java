@@ -0,0 +1,17 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class KanbanTaskCount {
+
+    private Long kanbanId;
+
+    private String kanbanTitle;
+
+    private TaskStatus status;
+
+    private long count;
+}
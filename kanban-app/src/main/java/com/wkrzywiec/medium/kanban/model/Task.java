@@ -5,11 +5,20 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Data
+@ToString(of = {"id", "kanbanId"})
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @NoArgsConstructor
 @Table(name = "task")
 @JsonIdentityInfo(
@@ -17,6 +26,12 @@ import javax.persistence.*;
         property = "id")
 public class Task {
 
+    /**
+     * Distance between positions of neighbouring tasks after they are
+     * appended or rebalanced, leaves room for many moves in between.
+     */
+    public static final long POSITION_GAP = 1L << 16;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @ApiModelProperty(position = 1)
@@ -34,4 +49,36 @@ public class Task {
     @Enumerated(EnumType.STRING)
     @ApiModelProperty(position = 5)
     private TaskStatus status;
+
+    @Column(name = "kanban_id", insertable = false, updatable = false)
+    @ApiModelProperty(position = 6, readOnly = true)
+    private Long kanbanId;
+
+    @Version
+    @ApiModelProperty(position = 7, readOnly = true)
+    private Long version;
+
+    @ApiModelProperty(position = 8, readOnly = true, notes = "Board revision of the last change of this task")
+    private Long revision = 0L;
+
+    @ApiModelProperty(position = 9, readOnly = true, notes = "Sparse position of the task within its board and status")
+    private Long position = 0L;
+
+    @Column(name = "done_at")
+    @ApiModelProperty(position = 10, readOnly = true, notes = "When the task was moved to DONE, it is archived some time after")
+    private Instant doneAt;
+
+    /**
+     * Keeps doneAt in line with the status, also called before tasks are
+     * inserted with plain JDBC, which bypasses JPA callbacks.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateDoneAt() {
+        if (status != TaskStatus.DONE) {
+            doneAt = null;
+        } else if (doneAt == null) {
+            doneAt = Instant.now();
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * DONE task moved out of the task table by TaskArchiveServiceImpl, so
+ * board reads only touch tasks that are still in use. Rows are written only
+ * with INSERT ... SELECT from the task table and never updated.
+ */
+@Data
+@Entity
+@Immutable
+@NoArgsConstructor
+@Table(name = "task_archive")
+public class TaskArchive {
+
+    @Id
+    @ApiModelProperty(position = 1)
+    private Long id;
+
+    @ApiModelProperty(position = 2)
+    private String title;
+
+    @ApiModelProperty(position = 3)
+    private String description;
+
+    @ApiModelProperty(position = 4)
+    private String color;
+
+    @Enumerated(EnumType.STRING)
+    @ApiModelProperty(position = 5)
+    private TaskStatus status;
+
+    @Column(name = "kanban_id")
+    @ApiModelProperty(position = 6)
+    private Long kanbanId;
+
+    @ApiModelProperty(position = 7)
+    private Long position;
+
+    @Column(name = "done_at")
+    @ApiModelProperty(position = 8)
+    private Instant doneAt;
+
+    @Column(name = "archived_at")
+    @ApiModelProperty(position = 9)
+    private Instant archivedAt;
+}
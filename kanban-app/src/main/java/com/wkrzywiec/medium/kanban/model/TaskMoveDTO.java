@@ -0,0 +1,22 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskMoveDTO {
+
+    @ApiModelProperty(position = 1, required = true)
+    private List<Long> taskIds;
+
+    @ApiModelProperty(position = 2, required = true, notes = "Id of a Kanban board to move tasks to")
+    private Long kanbanId;
+}
@@ -0,0 +1,20 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskPositionDTO {
+
+    @ApiModelProperty(position = 1, notes = "Status column to move the task to, current status if empty")
+    private TaskStatus status;
+
+    @ApiModelProperty(position = 2, notes = "Id of a task to place the task right after, top of the column if empty")
+    private Long afterTaskId;
+}
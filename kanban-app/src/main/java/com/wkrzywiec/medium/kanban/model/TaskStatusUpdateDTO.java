@@ -0,0 +1,25 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatusUpdateDTO {
+
+    @ApiModelProperty(position = 1, required = true, notes = "Status to move tasks to")
+    private TaskStatus status;
+
+    @ApiModelProperty(position = 2, notes = "Move only tasks in this status, tasks in any status if empty")
+    private TaskStatus fromStatus;
+
+    @ApiModelProperty(position = 3, notes = "Move only tasks with these ids, all tasks of a board if empty")
+    private List<Long> taskIds;
+}
@@ -0,0 +1,37 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "task_tombstone")
+public class TaskTombstone {
+
+    @Id
+    @JsonIgnore
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id")
+    @ApiModelProperty(position = 1)
+    private Long taskId;
+
+    @Column(name = "kanban_id")
+    @ApiModelProperty(position = 2)
+    private Long kanbanId;
+
+    @ApiModelProperty(position = 3)
+    private Long revision;
+
+    public TaskTombstone(Long taskId, Long kanbanId, Long revision) {
+        this.taskId = taskId;
+        this.kanbanId = kanbanId;
+        this.revision = revision;
+    }
+}
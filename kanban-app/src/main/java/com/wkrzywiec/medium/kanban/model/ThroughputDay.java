@@ -0,0 +1,20 @@
+package com.wkrzywiec.medium.kanban.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThroughputDay {
+
+    @ApiModelProperty(position = 1)
+    private LocalDate date;
+
+    @ApiModelProperty(position = 2)
+    private long completed;
+}
@@ -0,0 +1,45 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Second-level cache entries changed by a transaction of one instance,
+ * to be evicted by the others. Kanban boards are evicted together with
+ * their task collections, and cached query results are always evicted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    private String origin;
+
+    private long publishedAt;
+
+    private Set<Long> kanbanIds = new TreeSet<>();
+
+    private Set<Long> taskIds = new TreeSet<>();
+
+    private boolean allTasks;
+
+    private boolean allRegions;
+
+    public CacheInvalidation(String origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * Sent by a transport that may have missed invalidations, e.g. while it
+     * was reconnecting, so nothing cached before can be trusted.
+     */
+    public static CacheInvalidation allRegions(String origin) {
+        CacheInvalidation invalidation = new CacheInvalidation(origin);
+        invalidation.setAllRegions(true);
+        return invalidation;
+    }
+}
@@ -0,0 +1,15 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries second-level cache invalidations between the instances of the
+ * app. Subscribers receive the invalidations of all instances, including
+ * their own, and are called on a thread of the transport.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> subscriber);
+}
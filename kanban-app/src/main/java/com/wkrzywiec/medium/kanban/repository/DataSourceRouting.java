@@ -0,0 +1,26 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+/**
+ * Marks the current thread as one whose database work has to run on the
+ * primary, even in read-only transactions. Used for write requests, whose
+ * reads feed their writes, and for reads that have to see the latest writes.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,217 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Evicts second-level cache entries for writes that Hibernate can't track
+ * by itself, i.e. plain JDBC statements and deletes of tasks that are still
+ * referenced from a cached Kanban.tasks collection. Entries are evicted
+ * immediately and once more after the surrounding transaction completes, so
+ * a concurrent reader can't put back the state from before the commit.
+ * Does nothing when second-level cache is disabled.
+ * <p>
+ * With a CacheInvalidationBus, the entries evicted or invalidated during a
+ * transaction are also published once it commits, and the other instances
+ * of the app evict them from their caches as they receive them.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheEvictor.class);
+
+    static final String KANBAN_TASKS_ROLE = Kanban.class.getName() + ".tasks";
+
+    public static final String INVALIDATIONS_COUNTER = "kanban.cache.invalidations";
+    public static final String INVALIDATION_LAG_TIMER = "kanban.cache.invalidation.lag";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus invalidationBus;
+    private final String origin = UUID.randomUUID().toString();
+    private Counter publishedInvalidations;
+    private Counter receivedInvalidations;
+    private Timer invalidationLag;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, null, null);
+    }
+
+    @Autowired
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory,
+                              @Nullable CacheInvalidationBus invalidationBus,
+                              @Nullable MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.invalidationBus = invalidationBus;
+        if (invalidationBus != null) {
+            this.publishedInvalidations = Counter.builder(INVALIDATIONS_COUNTER)
+                    .tag("direction", "published")
+                    .description("Number of cache invalidations sent to other instances")
+                    .register(meterRegistry);
+            this.receivedInvalidations = Counter.builder(INVALIDATIONS_COUNTER)
+                    .tag("direction", "received")
+                    .description("Number of cache invalidations received from other instances")
+                    .register(meterRegistry);
+            this.invalidationLag = Timer.builder(INVALIDATION_LAG_TIMER)
+                    .description("Time from the commit on another instance to the eviction on this one")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            invalidationBus.subscribe(this::evictInvalidated);
+        }
+    }
+
+    public void evictKanban(Long kanbanId) {
+        logger.debug("Evicting Kanban board with id {} from cache", kanbanId);
+        evictNowAndAfterCompletion(cache -> cache.evictEntityData(Kanban.class, kanbanId));
+        invalidateKanban(kanbanId);
+    }
+
+    public void evictKanbanTasks(Long kanbanId) {
+        if (kanbanId == null) {
+            return;
+        }
+        logger.debug("Evicting tasks of Kanban board with id {} from cache", kanbanId);
+        evictNowAndAfterCompletion(cache -> cache.evictCollectionData(KANBAN_TASKS_ROLE, kanbanId));
+        invalidateKanban(kanbanId);
+    }
+
+    public void evictTask(Long taskId) {
+        logger.debug("Evicting task with id {} from cache", taskId);
+        evictNowAndAfterCompletion(cache -> cache.evictEntityData(Task.class, taskId));
+        invalidateTask(taskId, null);
+    }
+
+    public void evictAllTasks() {
+        logger.debug("Evicting all tasks from cache");
+        evictNowAndAfterCompletion(cache -> cache.evictEntityData(Task.class));
+        invalidateAllTasks();
+    }
+
+    public void evictQueryResults() {
+        logger.debug("Evicting cached query results");
+        evictNowAndAfterCompletion(Cache::evictDefaultQueryRegion);
+        invalidate(invalidation -> { });
+    }
+
+    /**
+     * Hibernate keeps the cache of this instance up to date on writes of
+     * entities, so the invalidations below only evict the changed Kanban
+     * board or task, together with the task collection of the board and
+     * cached query results, on the other instances.
+     */
+    public void invalidateKanban(Long kanbanId) {
+        invalidate(invalidation -> invalidation.getKanbanIds().add(kanbanId));
+    }
+
+    public void invalidateTask(Long taskId, Long kanbanId) {
+        invalidate(invalidation -> {
+            invalidation.getTaskIds().add(taskId);
+            if (kanbanId != null) {
+                invalidation.getKanbanIds().add(kanbanId);
+            }
+        });
+    }
+
+    public void invalidateAllTasks() {
+        invalidate(invalidation -> invalidation.setAllTasks(true));
+    }
+
+    private void evictNowAndAfterCompletion(Consumer<Cache> eviction) {
+        Cache cache = getCache();
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+
+    /**
+     * Collects the invalidations of a transaction in one message, sent only
+     * if it commits, so other instances can't reload the previous state.
+     */
+    private void invalidate(Consumer<CacheInvalidation> change) {
+        if (invalidationBus == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            CacheInvalidation invalidation = new CacheInvalidation(origin);
+            change.accept(invalidation);
+            publish(invalidation);
+            return;
+        }
+        CacheInvalidation invalidation = (CacheInvalidation) TransactionSynchronizationManager.getResource(this);
+        if (invalidation == null) {
+            CacheInvalidation pendingInvalidation = new CacheInvalidation(origin);
+            TransactionSynchronizationManager.bindResource(this, pendingInvalidation);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    publish(pendingInvalidation);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityCacheEvictor.this);
+                }
+            });
+            invalidation = pendingInvalidation;
+        }
+        change.accept(invalidation);
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        invalidation.setPublishedAt(System.currentTimeMillis());
+        invalidationBus.publish(invalidation);
+        publishedInvalidations.increment();
+    }
+
+    private void evictInvalidated(CacheInvalidation invalidation) {
+        if (origin.equals(invalidation.getOrigin())) {
+            return;
+        }
+        logger.debug("Evicting cache entries invalidated by another instance: {}", invalidation);
+        Cache cache = getCache();
+        if (invalidation.isAllRegions()) {
+            cache.evictAllRegions();
+        } else {
+            for (Long kanbanId : invalidation.getKanbanIds()) {
+                cache.evictEntityData(Kanban.class, kanbanId);
+                cache.evictCollectionData(KANBAN_TASKS_ROLE, kanbanId);
+            }
+            if (invalidation.isAllTasks()) {
+                cache.evictEntityData(Task.class);
+            } else {
+                invalidation.getTaskIds().forEach(taskId -> cache.evictEntityData(Task.class, taskId));
+            }
+            cache.evictDefaultQueryRegion();
+        }
+        receivedInvalidations.increment();
+        if (invalidation.getPublishedAt() > 0) {
+            invalidationLag.record(Math.max(0, System.currentTimeMillis() - invalidation.getPublishedAt()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Cache getCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
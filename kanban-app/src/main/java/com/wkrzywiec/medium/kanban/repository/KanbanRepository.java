@@ -1,13 +1,44 @@
 package com.wkrzywiec.medium.kanban.repository;
 
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanTaskCount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface KanbanRepository extends CrudRepository<Kanban, Long> {
+public interface KanbanRepository extends CrudRepository<Kanban, Long>, KanbanRepositoryCustom {
 
+    @Override
+    @EntityGraph(attributePaths = "tasks")
+    Optional<Kanban> findById(Long id);
+
+    @EntityGraph(attributePaths = "tasks")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     Optional<Kanban> findByTitle(String title);
+
+    @Query("select k.version from Kanban k where k.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select k.id from Kanban k where k.id > :id order by k.id")
+    List<Long> findIdsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select distinct k from Kanban k left join fetch k.tasks where k.id in :ids order by k.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Kanban> findWithTasksByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.wkrzywiec.medium.kanban.model.KanbanTaskCount(k.id, k.title, t.status, count(t.id)) " +
+            "from Kanban k left join k.tasks t " +
+            "group by k.id, k.title, t.status " +
+            "order by k.id")
+    List<KanbanTaskCount> countTasksByKanbanAndStatus();
 }
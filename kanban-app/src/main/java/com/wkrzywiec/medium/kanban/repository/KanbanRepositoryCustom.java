@@ -0,0 +1,23 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+
+import java.util.function.Consumer;
+
+public interface KanbanRepositoryCustom {
+
+    /**
+     * Reads all Kanban boards (without tasks) ordered by id through a
+     * forward-only cursor and hands each one to the consumer as soon as it
+     * is read. Must be called inside a transaction.
+     */
+    void streamAll(Consumer<Kanban> consumer);
+
+    /**
+     * Increments the board version and returns it as the revision of a task
+     * change, so its ETag changes as well. The row lock taken with it is held
+     * until commit, so revisions of a board are committed in increasing
+     * order.
+     */
+    Long nextRevision(Long id);
+}
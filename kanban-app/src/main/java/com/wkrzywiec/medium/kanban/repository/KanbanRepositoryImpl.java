@@ -0,0 +1,60 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+public class KanbanRepositoryImpl implements KanbanRepositoryCustom {
+
+    private static final String SELECT_ALL_KANBANS = "SELECT id, title FROM kanban ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public KanbanRepositoryImpl(DataSource dataSource,
+                                EntityCacheEvictor entityCacheEvictor,
+                                @Value("${kanban.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.entityCacheEvictor = entityCacheEvictor;
+    }
+
+    @Override
+    public void streamAll(Consumer<Kanban> consumer) {
+        jdbcTemplate.query(
+                con -> con.prepareStatement(SELECT_ALL_KANBANS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY),
+                rs -> {
+                    Kanban kanban = new Kanban();
+                    kanban.setId(rs.getLong("id"));
+                    kanban.setTitle(rs.getString("title"));
+                    consumer.accept(kanban);
+                });
+    }
+
+    /**
+     * Increments the version of the managed board rather than with a bulk
+     * update, which would make Hibernate evict every cached board. Only the
+     * cache entries of this board are evicted instead, since the version is
+     * changed with plain SQL that the cache doesn't track.
+     */
+    @Override
+    public Long nextRevision(Long id) {
+        Kanban kanban = entityManager.find(Kanban.class, id, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        if (kanban == null) {
+            throw new IllegalArgumentException("No kanban found with id: " + id);
+        }
+        entityCacheEvictor.evictKanban(id);
+        entityCacheEvictor.evictKanbanTasks(id);
+        return kanban.getVersion();
+    }
+}
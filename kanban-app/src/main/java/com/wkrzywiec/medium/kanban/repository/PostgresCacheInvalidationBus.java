@@ -0,0 +1,209 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations as Postgres notifications, so instances sharing a
+ * database need no other infrastructure. Each instance listens on its own
+ * connection, outside of the pool, and gets notifications as soon as they
+ * are sent. Notifications sent while the connection was lost can't be
+ * received later, so after reconnecting the subscribers are told to evict
+ * all regions.
+ */
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    // notification payloads are limited to 8000 bytes
+    static final int MAX_IDS_PER_NOTIFICATION = 300;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final int pollInterval;
+    private final long reconnectInterval;
+    private final ObjectMapper objectMapper;
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private final Thread listener;
+    private volatile boolean running = true;
+    private Connection publishConnection;
+
+    public PostgresCacheInvalidationBus(String url, String username, String password, String channel,
+                                        int pollInterval, long reconnectInterval, ObjectMapper objectMapper) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Cache invalidation channel must be a lower case SQL identifier: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+        this.reconnectInterval = reconnectInterval;
+        this.objectMapper = objectMapper;
+        this.listener = new Thread(this::listen, "cache-invalidation-listener");
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    @Override
+    public synchronized void publish(CacheInvalidation invalidation) {
+        for (CacheInvalidation part : split(invalidation)) {
+            try {
+                sendNotification(part);
+            } catch (SQLException e) {
+                closePublishConnection();
+                try {
+                    sendNotification(part);
+                } catch (SQLException retryException) {
+                    closePublishConnection();
+                    logger.error("Error occurred while publishing cache invalidation, other instances may serve stale data: {}",
+                            retryException.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        listener.join(pollInterval + 1000L);
+        synchronized (this) {
+            closePublishConnection();
+        }
+    }
+
+    private void sendNotification(CacheInvalidation invalidation) throws SQLException {
+        if (publishConnection == null) {
+            publishConnection = connect();
+        }
+        try (PreparedStatement statement = publishConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, objectMapper.writeValueAsString(invalidation));
+            statement.execute();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cache invalidation can't be serialized", e);
+        }
+    }
+
+    private void listen() {
+        boolean missedNotifications = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("Listening for cache invalidations on channel {}", channel);
+                if (missedNotifications) {
+                    deliver(CacheInvalidation.allRegions(null));
+                    missedNotifications = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollInterval);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                missedNotifications = true;
+                if (running) {
+                    logger.warn("Lost connection for cache invalidations, reconnecting in {} ms: {}", reconnectInterval, e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            deliver(objectMapper.readValue(payload, CacheInvalidation.class));
+        } catch (IOException e) {
+            logger.warn("Ignoring malformed cache invalidation: {}", payload);
+        }
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                logger.error("Error occurred while evicting invalidated cache entries", e);
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    private void closePublishConnection() {
+        if (publishConnection != null) {
+            try {
+                publishConnection.close();
+            } catch (SQLException e) {
+                logger.debug("Error occurred while closing connection for cache invalidations", e);
+            }
+            publishConnection = null;
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    static List<CacheInvalidation> split(CacheInvalidation invalidation) {
+        if (invalidation.getKanbanIds().size() + invalidation.getTaskIds().size() <= MAX_IDS_PER_NOTIFICATION) {
+            return Collections.singletonList(invalidation);
+        }
+        List<CacheInvalidation> parts = new ArrayList<>();
+        Iterator<Long> kanbanIds = invalidation.getKanbanIds().iterator();
+        Iterator<Long> taskIds = invalidation.getTaskIds().iterator();
+        while (kanbanIds.hasNext() || taskIds.hasNext()) {
+            Set<Long> partKanbanIds = new TreeSet<>();
+            Set<Long> partTaskIds = new TreeSet<>();
+            while (kanbanIds.hasNext() && partKanbanIds.size() < MAX_IDS_PER_NOTIFICATION) {
+                partKanbanIds.add(kanbanIds.next());
+            }
+            while (taskIds.hasNext() && partKanbanIds.size() + partTaskIds.size() < MAX_IDS_PER_NOTIFICATION) {
+                partTaskIds.add(taskIds.next());
+            }
+            parts.add(new CacheInvalidation(invalidation.getOrigin(), invalidation.getPublishedAt(),
+                    partKanbanIds, partTaskIds, invalidation.isAllTasks(), invalidation.isAllRegions()));
+        }
+        return parts;
+    }
+}
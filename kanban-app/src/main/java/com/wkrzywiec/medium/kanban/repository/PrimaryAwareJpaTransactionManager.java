@@ -0,0 +1,25 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Runs read-only transactions as read-write ones on threads marked with
+ * DataSourceRouting. Write requests load entities with read-only service
+ * methods and then change them, and with open session in view these
+ * entities stay in the persistence context, where a read-only transaction
+ * would leave them read-only and their changes would never be flushed.
+ */
+public class PrimaryAwareJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        if (definition.isReadOnly() && DataSourceRouting.isPrimaryRequired()) {
+            DefaultTransactionDefinition readWriteDefinition = new DefaultTransactionDefinition(definition);
+            readWriteDefinition.setReadOnly(false);
+            definition = readWriteDefinition;
+        }
+        super.doBegin(transaction, definition);
+    }
+}
@@ -0,0 +1,64 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections of read-only transactions to the replica pools in turn,
+ * and all other connections, including those of threads marked with
+ * DataSourceRouting, to the primary pool. The target is chosen when a
+ * connection is taken, so this has to be wrapped in a
+ * LazyConnectionDataSourceProxy, which takes it at the first statement of a
+ * transaction, once its read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String CONNECTIONS_COUNTER = "kanban.datasource.connections";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final Map<String, Counter> connectionCounters = new HashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(primary.getPoolName(), primary);
+        replicas.forEach(replica -> targetDataSources.put(replica.getPoolName(), replica));
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        for (Object poolName : targetDataSources.keySet()) {
+            connectionCounters.put((String) poolName, Counter.builder(CONNECTIONS_COUNTER)
+                    .description("Connections routed to each database pool")
+                    .tag("target", (String) poolName)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        HikariDataSource target = primary;
+        if (!replicas.isEmpty() && !DataSourceRouting.isPrimaryRequired()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            target = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+        }
+        connectionCounters.get(target.getPoolName()).increment();
+        return target.getPoolName();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
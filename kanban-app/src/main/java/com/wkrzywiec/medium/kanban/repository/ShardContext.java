@@ -0,0 +1,41 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+/**
+ * Holds the shard the database work of the current thread runs on. On a
+ * request thread the shard stays bound until the request ends, because the
+ * request keeps the connection of its first transaction open and loads lazy
+ * associations through it while the response is written.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> REQUEST = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static void openRequest() {
+        REQUEST.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        SHARD.remove();
+        REQUEST.remove();
+    }
+
+    public static boolean isRequest() {
+        return REQUEST.get() != null;
+    }
+
+    public static Integer getShard() {
+        return SHARD.get();
+    }
+
+    static void bind(Integer shard) {
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+    }
+}
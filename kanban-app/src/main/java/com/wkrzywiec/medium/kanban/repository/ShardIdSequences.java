@@ -0,0 +1,71 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes the id sequences of SERIAL columns of a shard generate only ids
+ * equal to shard + 1 modulo max-shards, which is how ShardRouter finds the
+ * shard of an id. A sequence that already does is left as it is, so
+ * instances starting next to running ones don't reset it.
+ */
+public final class ShardIdSequences {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardIdSequences.class);
+
+    private static final List<String> TABLES = Arrays.asList("kanban", "task", "task_tombstone");
+
+    private ShardIdSequences() {
+    }
+
+    public static void align(DataSource dataSource, int shard, int maxShards) throws MetaDataAccessException {
+        String databaseName = JdbcUtils.commonDatabaseName(
+                JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName"));
+        boolean postgres = "PostgreSQL".equals(databaseName);
+        if (!postgres && !"H2".equals(databaseName)) {
+            throw new IllegalStateException("Sharding is not supported on " + databaseName);
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String table : TABLES) {
+            String sequence = postgres
+                    ? jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table)
+                    : jdbcTemplate.queryForObject("SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ? AND COLUMN_NAME = 'ID'", String.class, table.toUpperCase());
+            long increment;
+            long nextValue;
+            if (postgres) {
+                increment = jdbcTemplate.queryForObject("SELECT seqincrement FROM pg_sequence WHERE seqrelid = ?::regclass",
+                        Long.class, sequence);
+                Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+                long lastValue = ((Number) state.get("last_value")).longValue();
+                nextValue = Boolean.TRUE.equals(state.get("is_called")) ? lastValue + increment : lastValue;
+            } else {
+                Map<String, Object> state = jdbcTemplate.queryForMap("SELECT CURRENT_VALUE, INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES " +
+                        "WHERE SEQUENCE_SCHEMA = SCHEMA() AND SEQUENCE_NAME = ?", sequence);
+                increment = ((Number) state.get("INCREMENT")).longValue();
+                nextValue = ((Number) state.get("CURRENT_VALUE")).longValue() + increment;
+            }
+            if (increment == maxShards && Math.floorMod(nextValue - 1, (long) maxShards) == shard) {
+                continue;
+            }
+            long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long start = Math.max(nextValue, lastId + 1);
+            start += Math.floorMod(shard + 1 - start, (long) maxShards);
+            logger.info("Sequence {} of shard {} generates ids from {} in steps of {}", sequence, shard, start, maxShards);
+            if (postgres) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + maxShards);
+                jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, sequence, start);
+            } else {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start + " INCREMENT BY " + maxShards);
+            }
+        }
+    }
+}
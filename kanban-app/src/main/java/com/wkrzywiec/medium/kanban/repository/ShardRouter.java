@@ -0,0 +1,162 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Places Kanban boards, with their tasks, on shards and runs database work
+ * on the shard it belongs to. Shard n generates ids equal to n + 1 modulo
+ * max-shards, so the shard of a board or a task is known from its id alone
+ * and ids are unique across shards. Max-shards can't change once data is
+ * stored, but shards up to it can be added later.
+ *
+ * With a single shard all work runs on the calling thread, as without
+ * sharding. Otherwise work on other shards than the one the thread is
+ * already bound to runs on a worker thread with its own EntityManager, so
+ * entities it returns are detached.
+ */
+public class ShardRouter implements DisposableBean {
+
+    private final int shardCount;
+    private final int maxShards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService executor;
+
+    public ShardRouter(int shardCount, int maxShards) {
+        if (shardCount < 1 || shardCount > maxShards) {
+            throw new IllegalArgumentException(
+                    String.format("Number of shards must be between 1 and %d, but was %d", maxShards, shardCount));
+        }
+        this.shardCount = shardCount;
+        this.maxShards = maxShards;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = shardCount == 1 ? null : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shard-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int getMaxShards() {
+        return maxShards;
+    }
+
+    public List<Integer> getShards() {
+        return IntStream.range(0, shardCount).boxed().collect(Collectors.toList());
+    }
+
+    public boolean hasShardFor(Long id) {
+        return id != null && Math.floorMod(id - 1, (long) maxShards) < shardCount;
+    }
+
+    public int shardOf(Long id) {
+        if (!hasShardFor(id)) {
+            throw new IllegalArgumentException("No shard stores id: " + id);
+        }
+        return (int) Math.floorMod(id - 1, (long) maxShards);
+    }
+
+    /**
+     * Picks the shard for a new Kanban board, or a task without one, in turn.
+     */
+    public int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (shardCount == 1) {
+            return action.get();
+        }
+        Integer boundShard = ShardContext.getShard();
+        if (boundShard == null && ShardContext.isRequest()) {
+            ShardContext.bind(shard);
+            return action.get();
+        }
+        if (boundShard == null) {
+            return callOnShard(shard, action);
+        }
+        if (boundShard == shard) {
+            return action.get();
+        }
+        return join(CompletableFuture.supplyAsync(() -> callOnShard(shard, action), executor));
+    }
+
+    /**
+     * Runs the action on the shard storing the id, or finds nothing if
+     * no shard does.
+     */
+    public <T> Optional<T> onShardOf(Long id, Supplier<Optional<T>> action) {
+        return hasShardFor(id) ? onShard(shardOf(id), action) : Optional.empty();
+    }
+
+    /**
+     * Runs the action on given shards in parallel, each on a worker thread,
+     * and returns the results in the order of the shards.
+     */
+    public <T> List<T> onShards(Collection<Integer> shards, IntFunction<T> action) {
+        if (shardCount == 1) {
+            return shards.stream().map(action::apply).collect(Collectors.toList());
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (Integer shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> callOnShard(shard, () -> action.apply(shard)), executor));
+        }
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    public <T> List<T> onEachShard(IntFunction<T> action) {
+        return onShards(getShards(), action);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T callOnShard(int shard, Supplier<T> action) {
+        Integer previousShard = ShardContext.getShard();
+        ShardContext.bind(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.bind(previousShard);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
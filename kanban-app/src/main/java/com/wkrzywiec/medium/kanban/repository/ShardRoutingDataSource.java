@@ -0,0 +1,60 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes connections to the pool of the shard bound to the current thread
+ * by ShardRouter. Like ReplicaRoutingDataSource it has to be wrapped in a
+ * LazyConnectionDataSourceProxy, so the shard can still be chosen inside a
+ * transaction, before its first statement. A transaction with no shard
+ * chosen fails instead of silently running on the first shard; connections
+ * taken outside of transactions, e.g. by Hibernate on startup, do so.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final List<HikariDataSource> shards;
+    private final List<Counter> connectionCounters = new ArrayList<>();
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards, MeterRegistry meterRegistry) {
+        this.shards = shards;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targetDataSources.put(shard, shards.get(shard));
+            connectionCounters.add(Counter.builder(ReplicaRoutingDataSource.CONNECTIONS_COUNTER)
+                    .description("Connections routed to each database pool")
+                    .tag("target", shards.get(shard).getPoolName())
+                    .register(meterRegistry));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+
+    public List<HikariDataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.getShard();
+        if (shard == null && shards.size() > 1 && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("No shard chosen for database work in transaction");
+        }
+        connectionCounters.get(shard == null ? 0 : shard).increment();
+        return shard == null ? 0 : shard;
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,68 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * SQL statements, fetched rows and JDBC time recorded on the current thread
+ * between start() and stop() by StatementCountingDataSource. Used to
+ * measure single HTTP requests and, in tests, single service calls.
+ */
+@Getter
+@ToString
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+
+    public static void start() {
+        CURRENT.set(new SqlStatistics());
+    }
+
+    public static SqlStatistics stop() {
+        SqlStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics == null ? new SqlStatistics() : statistics;
+    }
+
+    /**
+     * Runs an action and returns statistics of the statements it ran on
+     * the current thread. They are also added to the statistics recorded
+     * around it, if any.
+     */
+    public static SqlStatistics of(Runnable action) {
+        SqlStatistics outer = CURRENT.get();
+        start();
+        SqlStatistics statistics = null;
+        try {
+            action.run();
+        } finally {
+            statistics = stop();
+            if (outer != null) {
+                outer.statements += statistics.statements;
+                outer.rows += statistics.rows;
+                outer.jdbcNanos += statistics.jdbcNanos;
+                CURRENT.set(outer);
+            }
+        }
+        return statistics;
+    }
+
+    static void recordStatement(long nanos) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.jdbcNanos += nanos;
+        }
+    }
+
+    static void recordRow() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.rows++;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps connections of a DataSource, so every executed statement, its
+ * execution time and every row read from its result sets are recorded in
+ * SqlStatistics of the current thread. Covers Hibernate and JdbcTemplate
+ * alike; a JDBC batch is recorded as a single statement.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, super.getConnection(), new ConnectionHandler());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, super.getConnection(username, password), new ConnectionHandler());
+    }
+
+    private static <T> T wrap(Class<T> type, T target, Handler handler) {
+        handler.target = target;
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[]{ type }, handler));
+    }
+
+    private abstract static class Handler implements InvocationHandler {
+
+        Object target;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return handle(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Exception;
+    }
+
+    private static class ConnectionHandler extends Handler {
+
+        @Override
+        Object handle(Method method, Object[] args) throws Exception {
+            Object result = method.invoke(target, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return wrap(Statement.class, (Statement) result, new StatementHandler());
+                case "prepareStatement":
+                    return wrap(PreparedStatement.class, (PreparedStatement) result, new StatementHandler());
+                case "prepareCall":
+                    return wrap(CallableStatement.class, (CallableStatement) result, new StatementHandler());
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private static class StatementHandler extends Handler {
+
+        @Override
+        Object handle(Method method, Object[] args) throws Exception {
+            Object result;
+            if (method.getName().startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    result = method.invoke(target, args);
+                } finally {
+                    SqlStatistics.recordStatement(System.nanoTime() - start);
+                }
+            } else {
+                result = method.invoke(target, args);
+            }
+            if (result instanceof ResultSet) {
+                return wrap(ResultSet.class, (ResultSet) result, new ResultSetHandler());
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler extends Handler {
+
+        @Override
+        Object handle(Method method, Object[] args) throws Exception {
+            Object result = method.invoke(target, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlStatistics.recordRow();
+            }
+            return result;
+        }
+    }
+}
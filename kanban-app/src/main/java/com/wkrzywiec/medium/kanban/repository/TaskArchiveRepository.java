@@ -0,0 +1,33 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.TaskArchive;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskArchiveRepository extends CrudRepository<TaskArchive, Long> {
+
+    List<TaskArchive> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<TaskArchive> findByKanbanIdAndIdGreaterThanOrderByIdAsc(Long kanbanId, Long id, Pageable pageable);
+
+    /**
+     * Copies tasks with given ids that are still in a status since before
+     * a given time to the archive, with a single INSERT ... SELECT statement.
+     */
+    @Modifying
+    @Query("insert into TaskArchive (id, title, description, color, status, kanbanId, position, doneAt, archivedAt) " +
+            "select t.id, t.title, t.description, t.color, t.status, t.kanbanId, t.position, t.doneAt, :archivedAt " +
+            "from Task t where t.id in :ids and t.status = :status and t.doneAt < :before")
+    int insertFromTasks(@Param("ids") Collection<Long> ids, @Param("status") TaskStatus status, @Param("before") Instant before,
+                        @Param("archivedAt") Instant archivedAt);
+}
@@ -0,0 +1,243 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Append-only history of tasks arriving in and departing from the status
+ * columns of Kanban boards, together with its daily totals per board.
+ * A transition with no from status is an arrival on the board and one with
+ * no to status a departure from it. The totals are updated along with the
+ * history in the same transaction, so reports over any range of days read
+ * at most a few rows per day instead of the history itself.
+ * <p>
+ * Totals are updated first and inserted only when there is no row for the
+ * day yet, which is safe because writes of a board hold its row lock.
+ * Transition times are stored in UTC, whatever the zone of the JVM or the
+ * database session, same as the days of the totals.
+ */
+@Repository
+public class TaskFlowRepository {
+
+    private static final String SELECT_LATEST_TRANSITIONS =
+            "SELECT task_id, kanban_id, to_status FROM task_status_transition WHERE id IN (" +
+            "  SELECT MAX(id) FROM task_status_transition WHERE task_id IN (:taskIds) GROUP BY task_id)";
+    private static final String SELECT_WORK_STARTS =
+            "SELECT task_id, MIN(CASE WHEN to_status = :status THEN transitioned_at END) AS started_at, " +
+            "  MIN(transitioned_at) AS first_at " +
+            "FROM task_status_transition WHERE task_id IN (:taskIds) GROUP BY task_id";
+    private static final String INSERT_TRANSITION =
+            "INSERT INTO task_status_transition (task_id, kanban_id, from_status, to_status, transitioned_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_FLOW =
+            "UPDATE kanban_flow_daily SET arrived = arrived + ?, departed = departed + ? " +
+            "WHERE kanban_id = ? AND flow_date = ? AND status = ?";
+    private static final String INSERT_FLOW =
+            "INSERT INTO kanban_flow_daily (arrived, departed, kanban_id, flow_date, status) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_CYCLE_TIME =
+            "UPDATE kanban_cycle_time_daily SET completed = completed + ?, total_seconds = total_seconds + ?, " +
+            "max_seconds = GREATEST(max_seconds, ?) WHERE kanban_id = ? AND flow_date = ?";
+    private static final String INSERT_CYCLE_TIME =
+            "INSERT INTO kanban_cycle_time_daily (completed, total_seconds, max_seconds, kanban_id, flow_date) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_FLOW_BEFORE =
+            "SELECT status, SUM(arrived - departed) AS tasks FROM kanban_flow_daily " +
+            "WHERE kanban_id = ? AND flow_date < ? GROUP BY status";
+    private static final String SELECT_FLOW_BETWEEN =
+            "SELECT flow_date, status, arrived, departed FROM kanban_flow_daily " +
+            "WHERE kanban_id = ? AND flow_date BETWEEN ? AND ? ORDER BY flow_date";
+    private static final String SELECT_CYCLE_TIMES_BETWEEN =
+            "SELECT flow_date, completed, total_seconds, max_seconds FROM kanban_cycle_time_daily " +
+            "WHERE kanban_id = ? AND flow_date BETWEEN ? AND ? ORDER BY flow_date";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final int batchSize;
+
+    public TaskFlowRepository(DataSource dataSource,
+                              @Value("${kanban.batch.size:500}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Finds the board and status column each task was last recorded in,
+     * skipping tasks that were never recorded. A null status means the task
+     * departed from the board.
+     */
+    public Map<Long, ColumnState> findLatestStates(Collection<Long> taskIds) {
+        Map<Long, ColumnState> states = new HashMap<>();
+        for (List<Long> chunk : chunks(taskIds)) {
+            namedParameterJdbcTemplate.query(SELECT_LATEST_TRANSITIONS, new MapSqlParameterSource("taskIds", chunk), rs -> {
+                String status = rs.getString("to_status");
+                states.put(rs.getLong("task_id"),
+                        new ColumnState(rs.getLong("kanban_id"), status == null ? null : TaskStatus.valueOf(status)));
+            });
+        }
+        return states;
+    }
+
+    /**
+     * Finds when work on each task started, i.e. when it first arrived in a
+     * given status, or when it was first recorded if it never did.
+     */
+    public Map<Long, Instant> findWorkStarts(Collection<Long> taskIds, TaskStatus startStatus) {
+        Map<Long, Instant> starts = new HashMap<>();
+        for (List<Long> chunk : chunks(taskIds)) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("taskIds", chunk)
+                    .addValue("status", startStatus.name());
+            namedParameterJdbcTemplate.query(SELECT_WORK_STARTS, parameters, rs -> {
+                Timestamp startedAt = rs.getTimestamp("started_at", Calendar.getInstance(UTC));
+                starts.put(rs.getLong("task_id"),
+                        (startedAt != null ? startedAt : rs.getTimestamp("first_at", Calendar.getInstance(UTC))).toInstant());
+            });
+        }
+        return starts;
+    }
+
+    public void insertTransitions(List<Transition> transitions) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSITION, transitions, batchSize, (ps, transition) -> {
+            ps.setLong(1, transition.getTaskId());
+            ps.setLong(2, transition.getKanbanId());
+            ps.setString(3, transition.getFromStatus() == null ? null : transition.getFromStatus().name());
+            ps.setString(4, transition.getToStatus() == null ? null : transition.getToStatus().name());
+            ps.setTimestamp(5, Timestamp.from(transition.getTransitionedAt()), Calendar.getInstance(UTC));
+        });
+    }
+
+    public void addFlows(List<FlowTotal> flows) {
+        List<FlowTotal> missing = new ArrayList<>();
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_FLOW, flows, batchSize, (ps, flow) -> setFlow(ps, flow));
+        collectMissing(flows, updated, missing);
+        jdbcTemplate.batchUpdate(INSERT_FLOW, missing, batchSize, (ps, flow) -> setFlow(ps, flow));
+    }
+
+    public void addCycleTimes(List<CycleTimeTotal> cycleTimes) {
+        List<CycleTimeTotal> missing = new ArrayList<>();
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_CYCLE_TIME, cycleTimes, batchSize, (ps, cycleTime) -> setCycleTime(ps, cycleTime));
+        collectMissing(cycleTimes, updated, missing);
+        jdbcTemplate.batchUpdate(INSERT_CYCLE_TIME, missing, batchSize, (ps, cycleTime) -> setCycleTime(ps, cycleTime));
+    }
+
+    /**
+     * Sums up the tasks that arrived in and departed from each status column
+     * of a board before a given day.
+     */
+    public Map<TaskStatus, Long> sumFlowsBefore(Long kanbanId, LocalDate date) {
+        Map<TaskStatus, Long> tasks = new HashMap<>();
+        jdbcTemplate.query(SELECT_FLOW_BEFORE, rs -> {
+            tasks.put(TaskStatus.valueOf(rs.getString("status")), rs.getLong("tasks"));
+        }, kanbanId, Date.valueOf(date));
+        return tasks;
+    }
+
+    public List<FlowTotal> findFlowsBetween(Long kanbanId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_FLOW_BETWEEN, (rs, rowNum) -> new FlowTotal(
+                kanbanId, rs.getDate("flow_date").toLocalDate(), TaskStatus.valueOf(rs.getString("status")),
+                rs.getInt("arrived"), rs.getInt("departed")),
+                kanbanId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<CycleTimeTotal> findCycleTimesBetween(Long kanbanId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_CYCLE_TIMES_BETWEEN, (rs, rowNum) -> new CycleTimeTotal(
+                kanbanId, rs.getDate("flow_date").toLocalDate(), rs.getInt("completed"),
+                rs.getLong("total_seconds"), rs.getLong("max_seconds")),
+                kanbanId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private static void setFlow(PreparedStatement ps, FlowTotal flow) throws SQLException {
+        ps.setInt(1, flow.getArrived());
+        ps.setInt(2, flow.getDeparted());
+        ps.setLong(3, flow.getKanbanId());
+        ps.setDate(4, Date.valueOf(flow.getDate()));
+        ps.setString(5, flow.getStatus().name());
+    }
+
+    private static void setCycleTime(PreparedStatement ps, CycleTimeTotal cycleTime) throws SQLException {
+        ps.setInt(1, cycleTime.getCompleted());
+        ps.setLong(2, cycleTime.getTotalSeconds());
+        ps.setLong(3, cycleTime.getMaxSeconds());
+        ps.setLong(4, cycleTime.getKanbanId());
+        ps.setDate(5, Date.valueOf(cycleTime.getDate()));
+    }
+
+    private static <T> void collectMissing(List<T> rows, int[][] updated, List<T> missing) {
+        int row = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(rows.get(row));
+                }
+                row++;
+            }
+        }
+    }
+
+    private List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += batchSize) {
+            chunks.add(idList.subList(from, Math.min(from + batchSize, idList.size())));
+        }
+        return chunks;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ColumnState {
+        private Long kanbanId;
+        private TaskStatus status;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Transition {
+        private Long taskId;
+        private Long kanbanId;
+        private TaskStatus fromStatus;
+        private TaskStatus toStatus;
+        private Instant transitionedAt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FlowTotal {
+        private Long kanbanId;
+        private LocalDate date;
+        private TaskStatus status;
+        private int arrived;
+        private int departed;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CycleTimeTotal {
+        private Long kanbanId;
+        private LocalDate date;
+        private int completed;
+        private long totalSeconds;
+        private long maxSeconds;
+    }
+}
@@ -1,13 +1,94 @@
 package com.wkrzywiec.medium.kanban.repository;
 
 import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends CrudRepository<Task, Long> {
+public interface TaskRepository extends CrudRepository<Task, Long>, TaskRepositoryCustom {
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     Optional<Task> findByTitle(String title);
+
+    List<Task> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Task> findByKanbanIdAndIdGreaterThanOrderByIdAsc(Long kanbanId, Long id, Pageable pageable);
+
+    @Query("select t.version from Task t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    List<Task> findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(Long kanbanId, Long revision);
+
+    @Query("select distinct t.kanbanId from Task t where t.id in :ids and t.kanbanId <> :kanbanId order by t.kanbanId")
+    List<Long> findOtherKanbanIdsByIdIn(@Param("ids") Collection<Long> ids, @Param("kanbanId") Long kanbanId);
+
+    /**
+     * Moves tasks to another Kanban board with a single UPDATE statement.
+     * Tasks loaded before in the same persistence context are left stale.
+     */
+    @Modifying
+    @Query("update Task t set t.kanbanId = :kanbanId, t.revision = :revision, t.version = t.version + 1, " +
+            "t.position = t.position + :positionShift " +
+            "where t.id in :ids and (t.kanbanId is null or t.kanbanId <> :kanbanId)")
+    int moveToKanban(@Param("ids") Collection<Long> ids, @Param("kanbanId") Long kanbanId,
+                     @Param("revision") Long revision, @Param("positionShift") Long positionShift);
+
+    @Query("select t.id from Task t where t.status = :status and t.doneAt < :before order by t.doneAt, t.id")
+    List<Long> findIdsByStatusAndDoneAtBefore(@Param("status") TaskStatus status, @Param("before") Instant before, Pageable pageable);
+
+    /**
+     * Locks tasks with given ids that are still in a status since before a
+     * given time, so they can be copied and deleted without changing between.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.id in :ids and t.status = :status and t.doneAt < :before")
+    List<Long> lockIdsByIdInAndStatusAndDoneAtBefore(@Param("ids") Collection<Long> ids, @Param("status") TaskStatus status,
+                                                     @Param("before") Instant before);
+
+    @Query("select distinct t.kanbanId from Task t where t.id in :ids and t.kanbanId is not null order by t.kanbanId")
+    List<Long> findKanbanIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select min(t.doneAt) from Task t where t.status = :status")
+    Optional<Instant> findOldestDoneAt(@Param("status") TaskStatus status);
+
+    /**
+     * Deletes tasks with given ids that are still in a status since before
+     * a given time, i.e. the ones copied by TaskArchiveRepository.insertFromTasks.
+     */
+    @Modifying
+    @Query("delete from Task t where t.id in :ids and t.status = :status and t.doneAt < :before")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("status") TaskStatus status, @Param("before") Instant before);
+
+    @Query("select max(t.position) from Task t where t.kanbanId = :kanbanId and t.status = :status")
+    Optional<Long> findLastPosition(@Param("kanbanId") Long kanbanId, @Param("status") TaskStatus status);
+
+    @Query("select max(t.position) from Task t where t.kanbanId = :kanbanId")
+    Optional<Long> findLastPositionInKanban(@Param("kanbanId") Long kanbanId);
+
+    @Query("select t.position from Task t where t.id = :id and t.kanbanId = :kanbanId and t.status = :status")
+    Optional<Long> findPositionInColumn(@Param("id") Long id, @Param("kanbanId") Long kanbanId, @Param("status") TaskStatus status);
+
+    @Query("select t.position from Task t where t.kanbanId = :kanbanId and t.status = :status and t.id <> :excludedId " +
+            "order by t.position")
+    List<Long> findFirstPositions(@Param("kanbanId") Long kanbanId, @Param("status") TaskStatus status,
+                                  @Param("excludedId") Long excludedId, Pageable pageable);
+
+    @Query("select t.position from Task t where t.kanbanId = :kanbanId and t.status = :status and t.id <> :excludedId " +
+            "and t.position > :position order by t.position")
+    List<Long> findPositionsAfter(@Param("kanbanId") Long kanbanId, @Param("status") TaskStatus status,
+                                  @Param("excludedId") Long excludedId, @Param("position") Long position, Pageable pageable);
 }
@@ -0,0 +1,54 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Reads all tasks ordered by id through a forward-only cursor and hands
+     * each one to the consumer as soon as it is read. Tasks are detached,
+     * they never enter the persistence context. Must be called inside a
+     * transaction, otherwise PostgreSQL ignores the fetch size.
+     */
+    void streamAll(Consumer<Task> consumer);
+
+    /**
+     * Inserts all tasks into the Kanban board with a given id using JDBC
+     * statement batching and returns their generated ids in the same order.
+     * Bypasses the persistence context, so already loaded Kanban boards
+     * won't see the new tasks.
+     */
+    List<Long> insertAll(Long kanbanId, List<Task> tasks);
+
+    /**
+     * Full-text search over task titles and descriptions, best matches first.
+     * On PostgreSQL it is backed by the GIN full-text and trigram indexes,
+     * so also misspelled titles are found. Other databases fall back to
+     * a case insensitive substring match, ranking title matches higher.
+     */
+    List<Task> search(String query, long offset, int limit);
+
+    /**
+     * Sets the status of tasks of a Kanban board with a single UPDATE
+     * statement and returns the number of changed tasks. Only tasks in
+     * fromStatus and with given ids are updated, unless these are empty.
+     * Versions of updated tasks are incremented, their revision is set and
+     * positions are shifted by positionShift, keeping their order.
+     */
+    int updateStatus(Long kanbanId, Collection<Long> taskIds, TaskStatus fromStatus, TaskStatus status,
+                     Long revision, Long positionShift);
+
+    /**
+     * Renumbers positions of tasks in a status column of a Kanban board to
+     * multiples of Task.POSITION_GAP, keeping their order, and returns the
+     * number of updated tasks. Versions of updated tasks are incremented and
+     * their revision is set. The skipped task is left untouched. Uses JDBC
+     * batching and bypasses the persistence context.
+     */
+    int rebalancePositions(Long kanbanId, TaskStatus status, Long revision, Long skippedTaskId);
+}
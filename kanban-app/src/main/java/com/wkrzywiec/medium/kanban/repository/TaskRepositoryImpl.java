@@ -0,0 +1,195 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    private static final String SELECT_ALL_TASKS =
+            "SELECT id, title, description, color, status, kanban_id, version, revision, position, done_at FROM task ORDER BY id";
+    private static final String PG_SEARCH_TASKS =
+            "SELECT id, title, description, color, status, kanban_id, version, revision, position, done_at FROM (" +
+            "  SELECT t.*, ts_rank(to_tsvector('simple', title || ' ' || coalesce(description, '')), q.query)" +
+            "    + similarity(title, ?) AS rank" +
+            "  FROM task t, plainto_tsquery('simple', ?) q(query)" +
+            "  WHERE to_tsvector('simple', title || ' ' || coalesce(description, '')) @@ q.query OR title % ?" +
+            ") ranked ORDER BY rank DESC, id LIMIT ? OFFSET ?";
+    private static final String LIKE_SEARCH_TASKS =
+            "SELECT id, title, description, color, status, kanban_id, version, revision, position, done_at FROM task " +
+            "WHERE LOWER(title) LIKE ? ESCAPE '\\' OR LOWER(description) LIKE ? ESCAPE '\\' " +
+            "ORDER BY CASE WHEN LOWER(title) LIKE ? ESCAPE '\\' THEN 0 ELSE 1 END, id LIMIT ? OFFSET ?";
+    private static final String INSERT_TASK =
+            "INSERT INTO task (title, description, color, status, kanban_id, revision, position, done_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMN_TASK_IDS =
+            "SELECT id FROM task WHERE kanban_id = ? AND status = ? ORDER BY position, id";
+    private static final String UPDATE_TASK_POSITION =
+            "UPDATE task SET position = ?, revision = ?, version = version + 1 WHERE id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile Boolean postgres;
+
+    public TaskRepositoryImpl(DataSource dataSource,
+                              @Value("${kanban.export.fetch-size:1000}") int fetchSize,
+                              @Value("${kanban.batch.size:500}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void streamAll(Consumer<Task> consumer) {
+        jdbcTemplate.query(
+                con -> con.prepareStatement(SELECT_ALL_TASKS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY),
+                rs -> {
+                    consumer.accept(mapTask(rs));
+                });
+    }
+
+    @Override
+    public List<Task> search(String query, long offset, int limit) {
+        if (isPostgres()) {
+            return jdbcTemplate.query(PG_SEARCH_TASKS, (rs, rowNum) -> mapTask(rs),
+                    query, query, query, limit, offset);
+        }
+        String pattern = "%" + escapeLike(query.toLowerCase()) + "%";
+        return jdbcTemplate.query(LIKE_SEARCH_TASKS, (rs, rowNum) -> mapTask(rs),
+                pattern, pattern, pattern, limit, offset);
+    }
+
+    @Override
+    public List<Long> insertAll(Long kanbanId, List<Task> tasks) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+            List<Long> ids = new ArrayList<>(tasks.size());
+            try (PreparedStatement ps = con.prepareStatement(INSERT_TASK, new String[]{ "id" })) {
+                for (int from = 0; from < tasks.size(); from += batchSize) {
+                    for (Task task : tasks.subList(from, Math.min(from + batchSize, tasks.size()))) {
+                        ps.setString(1, task.getTitle());
+                        ps.setString(2, task.getDescription());
+                        ps.setString(3, task.getColor());
+                        if (task.getStatus() == null) {
+                            ps.setNull(4, Types.VARCHAR);
+                        } else {
+                            ps.setString(4, task.getStatus().name());
+                        }
+                        ps.setLong(5, kanbanId);
+                        ps.setLong(6, task.getRevision() == null ? 0L : task.getRevision());
+                        ps.setLong(7, task.getPosition() == null ? 0L : task.getPosition());
+                        task.updateDoneAt();
+                        ps.setTimestamp(8, task.getDoneAt() == null ? null : Timestamp.from(task.getDoneAt()));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public int updateStatus(Long kanbanId, Collection<Long> taskIds, TaskStatus fromStatus, TaskStatus status,
+                            Long revision, Long positionShift) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+        Path<TaskStatus> taskStatus = task.get("status");
+        Path<Long> version = task.get("version");
+        Path<Long> position = task.get("position");
+        List<Predicate> filter = new ArrayList<>();
+        filter.add(cb.equal(task.get("kanbanId"), kanbanId));
+        filter.add(cb.or(cb.isNull(taskStatus), cb.notEqual(taskStatus, status)));
+        if (fromStatus != null) {
+            filter.add(cb.equal(taskStatus, fromStatus));
+        }
+        if (taskIds != null && !taskIds.isEmpty()) {
+            filter.add(task.get("id").in(taskIds));
+        }
+        update.set(taskStatus, status)
+                .set(version, cb.sum(version, 1L))
+                .set(task.<Long>get("revision"), revision)
+                .set(position, cb.sum(position, positionShift))
+                .set(task.<Instant>get("doneAt"), status == TaskStatus.DONE ? Instant.now() : null)
+                .where(filter.toArray(new Predicate[0]));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int rebalancePositions(Long kanbanId, TaskStatus status, Long revision, Long skippedTaskId) {
+        List<Long> taskIds = jdbcTemplate.queryForList(SELECT_COLUMN_TASK_IDS, Long.class, kanbanId, status.name());
+        List<Object[]> positions = new ArrayList<>(taskIds.size());
+        long position = 0;
+        for (Long taskId : taskIds) {
+            if (!taskId.equals(skippedTaskId)) {
+                position += Task.POSITION_GAP;
+                positions.add(new Object[]{ position, revision, taskId });
+            }
+        }
+        jdbcTemplate.batchUpdate(UPDATE_TASK_POSITION, positions, batchSize,
+                (ps, taskPosition) -> {
+                    ps.setLong(1, (Long) taskPosition[0]);
+                    ps.setLong(2, (Long) taskPosition[1]);
+                    ps.setLong(3, (Long) taskPosition[2]);
+                });
+        return positions.size();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                    "PostgreSQL".equals(con.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Task mapTask(ResultSet rs) throws SQLException {
+        Task task = new Task();
+        task.setId(rs.getLong("id"));
+        task.setTitle(rs.getString("title"));
+        task.setDescription(rs.getString("description"));
+        task.setColor(rs.getString("color"));
+        String status = rs.getString("status");
+        task.setStatus(status == null ? null : TaskStatus.valueOf(status));
+        long kanbanId = rs.getLong("kanban_id");
+        task.setKanbanId(rs.wasNull() ? null : kanbanId);
+        task.setVersion(rs.getLong("version"));
+        task.setRevision(rs.getLong("revision"));
+        task.setPosition(rs.getLong("position"));
+        Timestamp doneAt = rs.getTimestamp("done_at");
+        task.setDoneAt(doneAt == null ? null : doneAt.toInstant());
+        return task;
+    }
+}
@@ -0,0 +1,26 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.TaskTombstone;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskTombstoneRepository extends CrudRepository<TaskTombstone, Long> {
+
+    List<TaskTombstone> findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(Long kanbanId, Long revision);
+
+    /**
+     * Records tasks with given ids that still belong to a Kanban board as
+     * deleted from it, with a single INSERT ... SELECT statement.
+     */
+    @Modifying
+    @Query("insert into TaskTombstone (taskId, kanbanId, revision) " +
+            "select t.id, t.kanbanId, :revision from Task t where t.kanbanId = :kanbanId and t.id in :ids")
+    int insertForTasks(@Param("kanbanId") Long kanbanId, @Param("ids") Collection<Long> ids, @Param("revision") Long revision);
+}
@@ -0,0 +1,13 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    long exportAllTasks(OutputStream outputStream) throws IOException;
+
+    long exportAllKanbans(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,103 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private final TaskRepository taskRepository;
+    private final KanbanRepository kanbanRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAllTasks(OutputStream outputStream) throws IOException {
+        logger.info("Exporting all tasks");
+        AtomicLong count = new AtomicLong();
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            taskRepository.streamAll(task -> {
+                writeLine(generator, task);
+                count.incrementAndGet();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} tasks", count.get());
+        return count.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAllKanbans(OutputStream outputStream) throws IOException {
+        logger.info("Exporting all Kanban boards");
+        AtomicLong count = new AtomicLong();
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            kanbanRepository.streamAll(kanban -> {
+                writeLine(generator, kanban);
+                count.incrementAndGet();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} Kanban boards", count.get());
+        return count.get();
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private void writeLine(JsonGenerator generator, Task task) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", task.getId());
+            generator.writeStringField("title", task.getTitle());
+            generator.writeStringField("description", task.getDescription());
+            generator.writeStringField("color", task.getColor());
+            generator.writeStringField("status", task.getStatus() == null ? null : task.getStatus().name());
+            if (task.getKanbanId() == null) {
+                generator.writeNullField("kanbanId");
+            } else {
+                generator.writeNumberField("kanbanId", task.getKanbanId());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(JsonGenerator generator, Kanban kanban) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", kanban.getId());
+            generator.writeStringField("title", kanban.getTitle());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface KanbanEventService {
+
+    String CONNECTIONS_GAUGE = "kanban.events.connections";
+
+    SseEmitter subscribe(Long kanbanId, Long revision);
+
+    void broadcast(KanbanEvent event);
+
+    int getSubscriberCount();
+}
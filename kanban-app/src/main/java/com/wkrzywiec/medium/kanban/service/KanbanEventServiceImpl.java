@@ -0,0 +1,210 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes task changes of Kanban boards to subscribed clients as Server-Sent
+ * Events. Every event is serialized once, after its transaction commits,
+ * and the same frame is queued for all subscribers of the board. Frames
+ * are written by a small sender pool, so a slow client never blocks the
+ * request that made the change; a client whose bounded queue is full is
+ * disconnected. Every connection starts with a subscribed event holding
+ * the current board revision, upon which a reconnected client reads the
+ * changes it missed from the change feed, since the revision of the last
+ * event it applied.
+ */
+@Service
+public class KanbanEventServiceImpl implements KanbanEventService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(KanbanEventServiceImpl.class);
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeout;
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter droppedSubscribers;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+
+    public KanbanEventServiceImpl(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${kanban.events.buffer-size:256}") int bufferSize,
+                                  @Value("${kanban.events.timeout:1800000}") long timeout,
+                                  @Value("${kanban.events.sender-threads:4}") int senderThreads,
+                                  @Value("${kanban.events.heartbeat-interval:15000}") long heartbeatInterval) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sender = Executors.newFixedThreadPool(senderThreads, daemonThreads("kanban-events-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("kanban-events-heartbeat"));
+        this.heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        Gauge.builder(CONNECTIONS_GAUGE, subscriberCount, AtomicInteger::get)
+                .description("Number of clients subscribed to Kanban board events")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("kanban.events.dropped")
+                .description("Number of clients disconnected because they did not keep up with Kanban board events")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long kanbanId, Long revision) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(kanbanId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(kanbanId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        logger.info("New subscriber of Kanban board with id {} at revision {}", kanbanId, revision);
+        subscriber.offer(new Frame(String.valueOf(revision), "subscribed", "{\"kanbanId\":" + kanbanId + ",\"revision\":" + revision + "}"));
+        return emitter;
+    }
+
+    @Override
+    @TransactionalEventListener
+    public void broadcast(KanbanEvent event) {
+        Set<Subscriber> boardSubscribers = subscribers.getOrDefault(event.getKanbanId(), Collections.emptySet());
+        if (boardSubscribers.isEmpty()) {
+            return;
+        }
+        Frame frame;
+        try {
+            frame = new Frame(String.valueOf(event.getRevision()), event.getType().name(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            logger.error("Error occurred while serializing {} event of Kanban board with id {}", event.getType(), event.getKanbanId(), e);
+            return;
+        }
+        logger.info("Broadcasting {} event of Kanban board with id {} to {} subscribers",
+                event.getType(), event.getKanbanId(), boardSubscribers.size());
+        boardSubscribers.forEach(subscriber -> subscriber.offer(frame));
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(boardSubscribers -> boardSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private void sendHeartbeat() {
+        Frame frame = new Frame(null, HEARTBEAT, null);
+        subscribers.values().forEach(boardSubscribers -> boardSubscribers.forEach(subscriber -> subscriber.offer(frame)));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Set<Subscriber> boardSubscribers = subscribers.get(subscriber.kanbanId);
+        if (boardSubscribers != null && boardSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.kanbanId, (id, remaining) -> remaining.isEmpty() ? null : remaining);
+            logger.info("Subscriber of Kanban board with id {} disconnected", subscriber.kanbanId);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Frame {
+
+        private final String id;
+        private final String name;
+        private final String data;
+
+        private Frame(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        private SseEmitter.SseEventBuilder toEvent() {
+            if (data == null) {
+                return SseEmitter.event().comment(name);
+            }
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    private class Subscriber {
+
+        private final Long kanbanId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> frames = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(Long kanbanId, SseEmitter emitter) {
+            this.kanbanId = kanbanId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Frame frame) {
+            if (!frames.offer(frame)) {
+                logger.warn("Subscriber of Kanban board with id {} is too slow, disconnecting it", kanbanId);
+                droppedSubscribers.increment();
+                unsubscribe(this);
+                frames.clear();
+                emitter.complete();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::send);
+            }
+        }
+
+        private void send() {
+            do {
+                try {
+                    Frame frame;
+                    while ((frame = frames.poll()) != null) {
+                        emitter.send(frame.toEvent());
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    logger.info("Subscriber of Kanban board with id {} is gone: {}", kanbanId, e.getMessage());
+                    unsubscribe(this);
+                    frames.clear();
+                } finally {
+                    sending.set(false);
+                }
+            } while (!frames.isEmpty() && sending.compareAndSet(false, true));
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.wkrzywiec.medium.kanban.service;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanChanges;
 import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.Task;
 import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatusUpdateDTO;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,8 +17,16 @@ public interface KanbanService {
 
     List<Kanban> getAllKanbanBoards();
 
+    CursorPage<Kanban> getKanbanBoardsPage(String after, int limit);
+
+    List<KanbanSummary> getKanbanSummaries();
+
     Optional<Kanban> getKanbanById(Long id);
 
+    Optional<Long> getKanbanVersion(Long id);
+
+    Optional<KanbanChanges> getKanbanChanges(Long id, Long sinceRevision);
+
     Optional<Kanban> getKanbanByTitle(String title);
 
     Kanban saveNewKanban(KanbanDTO kanbanDTO);
@@ -21,5 +35,9 @@ public interface KanbanService {
 
     void deleteKanban(Kanban kanban);
 
-    Kanban addNewTaskToKanban(Long kanbanId, TaskDTO taskDTO);
+    Optional<Task> addNewTaskToKanban(Long kanbanId, TaskDTO taskDTO);
+
+    Optional<List<Long>> addNewTasksToKanban(Long kanbanId, List<TaskDTO> taskDTOs);
+
+    Optional<BulkUpdateResult> updateTasksStatus(Long kanbanId, TaskStatusUpdateDTO statusUpdateDTO);
 }
@@ -1,19 +1,38 @@
 package com.wkrzywiec.medium.kanban.service;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanChanges;
 import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.KanbanTaskCount;
 import com.wkrzywiec.medium.kanban.model.Task;
 import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.model.TaskStatusUpdateDTO;
+import com.wkrzywiec.medium.kanban.model.TaskTombstone;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
 import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,9 +41,14 @@ public class KanbanServiceImpl implements KanbanService {
     private static final Logger logger = LoggerFactory.getLogger(KanbanServiceImpl.class);
 
     private final KanbanRepository kanbanRepository;
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskFlowService taskFlowService;
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<Kanban> getAllKanbanBoards() {
         logger.info("Retrieving all Kanban boards");
         List<Kanban> kanbanList = new ArrayList<>();
@@ -34,7 +58,41 @@ public class KanbanServiceImpl implements KanbanService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public CursorPage<Kanban> getKanbanBoardsPage(String after, int limit) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        Long afterId = CursorPage.decodeCursor(after);
+        logger.info("Retrieving page of {} Kanban boards after id {}", pageSize, afterId);
+        List<Long> kanbanIds = kanbanRepository.findIdsByIdGreaterThan(afterId, PageRequest.of(0, pageSize + 1));
+        String nextCursor = null;
+        if (kanbanIds.size() > pageSize) {
+            kanbanIds = kanbanIds.subList(0, pageSize);
+            nextCursor = CursorPage.encodeCursor(kanbanIds.get(pageSize - 1));
+        }
+        List<Kanban> kanbanList = kanbanIds.isEmpty()
+                ? new ArrayList<>()
+                : kanbanRepository.findWithTasksByIdIn(kanbanIds);
+        logger.info("Retrieved {} Kanban boards", kanbanList.size());
+        return new CursorPage<>(kanbanList, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<KanbanSummary> getKanbanSummaries() {
+        logger.info("Retrieving Kanban board summaries");
+        Map<Long, KanbanSummary> summaries = new LinkedHashMap<>();
+        for (KanbanTaskCount taskCount : kanbanRepository.countTasksByKanbanAndStatus()) {
+            summaries.computeIfAbsent(
+                    taskCount.getKanbanId(),
+                    id -> new KanbanSummary(id, taskCount.getKanbanTitle()))
+                .addTaskCount(taskCount.getStatus(), taskCount.getCount());
+        }
+        logger.info("Retrieved {} Kanban board summaries", summaries.size());
+        return new ArrayList<>(summaries.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Kanban> getKanbanById(Long id) {
         logger.info("Retrieving Kanban board with id: {}", id);
         Optional<Kanban> kanban = kanbanRepository.findById(id);
@@ -47,7 +105,41 @@ public class KanbanServiceImpl implements KanbanService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public Optional<Long> getKanbanVersion(Long id) {
+        logger.info("Retrieving version of Kanban board with id: {}", id);
+        return kanbanRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<KanbanChanges> getKanbanChanges(Long id, Long sinceRevision) {
+        logger.info("Retrieving changes of Kanban board with id {} since revision {}", id, sinceRevision);
+        Optional<Long> optRevision = kanbanRepository.findVersionById(id);
+        if (!optRevision.isPresent()) {
+            logger.warn("Kanban board with id {} not found", id);
+            return Optional.empty();
+        }
+        long revision = optRevision.get();
+        if (revision <= sinceRevision) {
+            logger.info("No changes of Kanban board with id {} since revision {}", id, sinceRevision);
+            return Optional.of(new KanbanChanges(id, revision, new ArrayList<>(), new ArrayList<>()));
+        }
+        List<Task> tasks = taskRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(id, sinceRevision);
+        List<TaskTombstone> deletedTasks = taskTombstoneRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(id, sinceRevision);
+        for (Task task : tasks) {
+            revision = Math.max(revision, task.getRevision());
+        }
+        for (TaskTombstone deletedTask : deletedTasks) {
+            revision = Math.max(revision, deletedTask.getRevision());
+        }
+        logger.info("Found {} changed and {} deleted tasks of Kanban board with id {} since revision {}",
+                tasks.size(), deletedTasks.size(), id, sinceRevision);
+        return Optional.of(new KanbanChanges(id, revision, tasks, deletedTasks));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Kanban> getKanbanByTitle(String title) {
         logger.info("Retrieving Kanban board with title: {}", title);
         Optional<Kanban> kanban = kanbanRepository.findByTitle(title);
@@ -65,6 +157,7 @@ public class KanbanServiceImpl implements KanbanService {
         logger.info("Saving new Kanban board");
         Kanban kanban = convertDTOToKanban(kanbanDTO);
         kanban = kanbanRepository.save(kanban);
+        entityCacheEvictor.invalidateKanban(kanban.getId());
         logger.info("New Kanban board saved successfully with id: {}", kanban.getId());
         return kanban;
     }
@@ -75,6 +168,7 @@ public class KanbanServiceImpl implements KanbanService {
         logger.info("Updating Kanban board with id: {}", oldKanban.getId());
         oldKanban.setTitle(newKanbanDTO.getTitle());
         oldKanban = kanbanRepository.save(oldKanban);
+        entityCacheEvictor.invalidateKanban(oldKanban.getId());
         logger.info("Kanban board with id {} updated successfully", oldKanban.getId());
         return oldKanban;
     }
@@ -84,18 +178,95 @@ public class KanbanServiceImpl implements KanbanService {
     public void deleteKanban(Kanban kanban) {
         logger.info("Deleting Kanban board with id: {}", kanban.getId());
         kanbanRepository.delete(kanban);
+        entityCacheEvictor.invalidateKanban(kanban.getId());
+        if (kanban.getTasks() != null) {
+            kanban.getTasks().forEach(task -> entityCacheEvictor.invalidateTask(task.getId(), null));
+        }
         logger.info("Kanban board with id {} deleted successfully", kanban.getId());
     }
 
     @Override
     @Transactional
-    public Kanban addNewTaskToKanban(Long kanbanId, TaskDTO taskDTO) {
+    public Optional<Task> addNewTaskToKanban(Long kanbanId, TaskDTO taskDTO) {
         logger.info("Adding new task to Kanban board with id: {}", kanbanId);
-        Kanban kanban = kanbanRepository.findById(kanbanId).get();
-        kanban.addTask(convertDTOToTask(taskDTO));
-        kanban = kanbanRepository.save(kanban);
-        logger.info("New task added to Kanban board with id {}", kanbanId);
-        return kanban;
+        if (!kanbanRepository.existsById(kanbanId)) {
+            logger.warn("Kanban board with id {} not found", kanbanId);
+            return Optional.empty();
+        }
+        Task task = convertDTOToTask(taskDTO);
+        insertTasks(kanbanId, Collections.singletonList(task));
+        logger.info("New task with id {} added to Kanban board with id {}", task.getId(), kanbanId);
+        return Optional.of(task);
+    }
+
+    @Override
+    @Transactional
+    public Optional<List<Long>> addNewTasksToKanban(Long kanbanId, List<TaskDTO> taskDTOs) {
+        logger.info("Adding {} new tasks to Kanban board with id: {}", taskDTOs.size(), kanbanId);
+        if (!kanbanRepository.existsById(kanbanId)) {
+            logger.warn("Kanban board with id {} not found", kanbanId);
+            return Optional.empty();
+        }
+        List<Task> tasks = taskDTOs.stream()
+                .map(this::convertDTOToTask)
+                .collect(Collectors.toList());
+        List<Long> taskIds = insertTasks(kanbanId, tasks);
+        logger.info("{} new tasks added to Kanban board with id {}", taskIds.size(), kanbanId);
+        return Optional.of(taskIds);
+    }
+
+    @Override
+    @Transactional
+    public Optional<BulkUpdateResult> updateTasksStatus(Long kanbanId, TaskStatusUpdateDTO statusUpdateDTO) {
+        if (statusUpdateDTO.getStatus() == null) {
+            throw new IllegalArgumentException("Target task status must not be empty");
+        }
+        logger.info("Moving tasks of Kanban board with id {} to status {}", kanbanId, statusUpdateDTO.getStatus());
+        if (!kanbanRepository.existsById(kanbanId)) {
+            logger.warn("Kanban board with id {} not found", kanbanId);
+            return Optional.empty();
+        }
+        Long revision = kanbanRepository.nextRevision(kanbanId);
+        long positionShift = taskRepository.findLastPosition(kanbanId, statusUpdateDTO.getStatus()).orElse(0L) + Task.POSITION_GAP;
+        int updated = taskRepository.updateStatus(kanbanId, statusUpdateDTO.getTaskIds(),
+                statusUpdateDTO.getFromStatus(), statusUpdateDTO.getStatus(), revision, positionShift);
+        if (updated > 0) {
+            entityCacheEvictor.evictQueryResults();
+            entityCacheEvictor.invalidateAllTasks();
+            List<Task> movedTasks = taskRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(kanbanId, revision - 1);
+            taskFlowService.recordTasks(movedTasks);
+            eventPublisher.publishEvent(new KanbanEvent(KanbanEvent.Type.TASK_MOVED, kanbanId, revision, movedTasks, new ArrayList<>()));
+        }
+        logger.info("{} tasks of Kanban board with id {} moved to status {}", updated, kanbanId, statusUpdateDTO.getStatus());
+        return Optional.of(new BulkUpdateResult(updated, revision));
+    }
+
+    /**
+     * Inserts new tasks of a board directly, without loading the board and
+     * its other tasks, so adding a task costs the same on any board size.
+     * Tasks are appended at the end of their status columns.
+     */
+    private List<Long> insertTasks(Long kanbanId, List<Task> tasks) {
+        Long revision = kanbanRepository.nextRevision(kanbanId);
+        Map<TaskStatus, Long> lastPositions = new HashMap<>();
+        for (Task task : tasks) {
+            long position = lastPositions.computeIfAbsent(task.getStatus(),
+                    status -> taskRepository.findLastPosition(kanbanId, status).orElse(0L)) + Task.POSITION_GAP;
+            lastPositions.put(task.getStatus(), position);
+            task.setPosition(position);
+            task.setRevision(revision);
+        }
+        List<Long> taskIds = taskRepository.insertAll(kanbanId, tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setId(taskIds.get(i));
+            tasks.get(i).setKanbanId(kanbanId);
+            tasks.get(i).setVersion(0L);
+        }
+        taskFlowService.recordNewTasks(tasks);
+        entityCacheEvictor.evictKanbanTasks(kanbanId);
+        entityCacheEvictor.evictQueryResults();
+        eventPublisher.publishEvent(KanbanEvent.tasksCreated(kanbanId, revision, tasks));
+        return taskIds;
     }
 
     private Kanban convertDTOToKanban(KanbanDTO kanbanDTO){
@@ -0,0 +1,16 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.Task;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveKanbanService {
+
+    Flux<KanbanSummary> getKanbanSummaries();
+
+    Mono<Kanban> getKanbanById(Long id);
+
+    Mono<Flux<Task>> getKanbanTasks(Long kanbanId);
+}
@@ -0,0 +1,94 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.config.ReactiveConfig;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Collections;
+
+@Service
+public class ReactiveKanbanServiceImpl implements ReactiveKanbanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveKanbanServiceImpl.class);
+
+    private final KanbanService kanbanService;
+    private final KanbanRepository kanbanRepository;
+    private final TaskRepository taskRepository;
+    private final ShardRouter shardRouter;
+    private final Scheduler jdbcScheduler;
+    private final int pageSize;
+    private final Duration timeout;
+
+    public ReactiveKanbanServiceImpl(KanbanService kanbanService,
+                                     KanbanRepository kanbanRepository,
+                                     TaskRepository taskRepository,
+                                     ShardRouter shardRouter,
+                                     @Qualifier(ReactiveConfig.JDBC_SCHEDULER) Scheduler jdbcScheduler,
+                                     @Value("${kanban.reactive.page-size:100}") int pageSize,
+                                     @Value("${kanban.reactive.timeout:10000}") long timeout) {
+        this.kanbanService = kanbanService;
+        this.kanbanRepository = kanbanRepository;
+        this.taskRepository = taskRepository;
+        this.shardRouter = shardRouter;
+        this.jdbcScheduler = jdbcScheduler;
+        this.pageSize = pageSize;
+        this.timeout = Duration.ofMillis(timeout);
+    }
+
+    @Override
+    public Flux<KanbanSummary> getKanbanSummaries() {
+        return Mono.fromCallable(kanbanService::getKanbanSummaries)
+                .subscribeOn(jdbcScheduler)
+                .timeout(timeout)
+                .flatMapIterable(summaries -> summaries);
+    }
+
+    /**
+     * Loads the board together with its tasks in a single query, since the
+     * lazy tasks collection can't be loaded later while it is serialized.
+     */
+    @Override
+    public Mono<Kanban> getKanbanById(Long id) {
+        logger.info("Retrieving Kanban board with id: {}", id);
+        return Mono.fromCallable(() -> shardRouter.onShardOf(id,
+                        () -> kanbanRepository.findWithTasksByIdIn(Collections.singletonList(id)).stream().findFirst())
+                        .orElse(null))
+                .subscribeOn(jdbcScheduler)
+                .timeout(timeout);
+    }
+
+    /**
+     * Checks that the board exists before any of its tasks are streamed,
+     * so a missing board gives an empty Mono instead of an empty stream.
+     */
+    @Override
+    public Mono<Flux<Task>> getKanbanTasks(Long kanbanId) {
+        logger.info("Streaming tasks of Kanban board with id {} in pages of {}", kanbanId, pageSize);
+        if (!shardRouter.hasShardFor(kanbanId)) {
+            return Mono.empty();
+        }
+        int shard = shardRouter.shardOf(kanbanId);
+        return Mono.fromCallable(() -> shardRouter.onShard(shard, () -> kanbanRepository.existsById(kanbanId)))
+                .subscribeOn(jdbcScheduler)
+                .timeout(timeout)
+                .filter(exists -> exists)
+                .map(exists -> ReactivePages.stream(
+                        afterId -> shardRouter.onShard(shard,
+                                () -> taskRepository.findByKanbanIdAndIdGreaterThanOrderByIdAsc(kanbanId, afterId, PageRequest.of(0, pageSize))),
+                        Task::getId, pageSize, jdbcScheduler, timeout));
+    }
+}
@@ -0,0 +1,37 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streams rows read with keyset pagination. A page is read on the given
+ * scheduler only when the previous one has been consumed downstream, so a
+ * slow client holds at most a page or two in memory and no connection.
+ * The timeout applies to reading each page, not to the slow client.
+ */
+final class ReactivePages {
+
+    private ReactivePages() {
+    }
+
+    static <T> Flux<T> stream(Function<Long, List<T>> pageAfter, Function<T, Long> idOf, int pageSize,
+                              Scheduler scheduler, Duration timeout) {
+        return readPage(pageAfter, 0L, scheduler, timeout)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : readPage(pageAfter, idOf.apply(page.get(page.size() - 1)), scheduler, timeout))
+                .flatMapIterable(page -> page, 1);
+    }
+
+    private static <T> Mono<List<T>> readPage(Function<Long, List<T>> pageAfter, Long afterId,
+                                              Scheduler scheduler, Duration timeout) {
+        return Mono.fromCallable(() -> pageAfter.apply(afterId))
+                .subscribeOn(scheduler)
+                .timeout(timeout);
+    }
+}
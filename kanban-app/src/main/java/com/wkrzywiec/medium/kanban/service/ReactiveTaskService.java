@@ -0,0 +1,12 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTaskService {
+
+    Flux<Task> getAllTasks();
+
+    Mono<Task> getTaskById(Long id);
+}
@@ -0,0 +1,63 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.config.ReactiveConfig;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+@Service
+public class ReactiveTaskServiceImpl implements ReactiveTaskService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTaskServiceImpl.class);
+
+    private final TaskRepository taskRepository;
+    private final ShardRouter shardRouter;
+    private final Scheduler jdbcScheduler;
+    private final int pageSize;
+    private final Duration timeout;
+
+    public ReactiveTaskServiceImpl(TaskRepository taskRepository,
+                                   ShardRouter shardRouter,
+                                   @Qualifier(ReactiveConfig.JDBC_SCHEDULER) Scheduler jdbcScheduler,
+                                   @Value("${kanban.reactive.page-size:100}") int pageSize,
+                                   @Value("${kanban.reactive.timeout:10000}") long timeout) {
+        this.taskRepository = taskRepository;
+        this.shardRouter = shardRouter;
+        this.jdbcScheduler = jdbcScheduler;
+        this.pageSize = pageSize;
+        this.timeout = Duration.ofMillis(timeout);
+    }
+
+    /**
+     * Streams tasks of one shard after another, so they are in order of
+     * ids only within a shard.
+     */
+    @Override
+    public Flux<Task> getAllTasks() {
+        logger.info("Streaming all tasks in pages of {}", pageSize);
+        return Flux.fromIterable(shardRouter.getShards())
+                .concatMap(shard -> ReactivePages.stream(
+                        afterId -> shardRouter.onShard(shard,
+                                () -> taskRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize))),
+                        Task::getId, pageSize, jdbcScheduler, timeout));
+    }
+
+    @Override
+    public Mono<Task> getTaskById(Long id) {
+        logger.info("Retrieving task with id: {}", id);
+        return Mono.fromCallable(() -> shardRouter.onShardOf(id, () -> taskRepository.findById(id)).orElse(null))
+                .subscribeOn(jdbcScheduler)
+                .timeout(timeout);
+    }
+}
@@ -0,0 +1,56 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+
+/**
+ * Exports the shards one after another into the same stream, so rows are
+ * in order of ids only within a shard.
+ */
+public class ShardedExportService implements ExportService {
+
+    private final ExportService exportService;
+    private final ShardRouter shardRouter;
+
+    public ShardedExportService(ExportService exportService, ShardRouter shardRouter) {
+        this.exportService = exportService;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public long exportAllTasks(OutputStream outputStream) throws IOException {
+        return exportShards(() -> exportService.exportAllTasks(outputStream));
+    }
+
+    @Override
+    public long exportAllKanbans(OutputStream outputStream) throws IOException {
+        return exportShards(() -> exportService.exportAllKanbans(outputStream));
+    }
+
+    private long exportShards(ShardExport export) throws IOException {
+        long count = 0;
+        try {
+            for (Integer shard : shardRouter.getShards()) {
+                count += shardRouter.onShards(Collections.singletonList(shard), exportedShard -> {
+                    try {
+                        return export.run();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).get(0);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count;
+    }
+
+    private interface ShardExport {
+
+        long run() throws IOException;
+    }
+}
@@ -0,0 +1,125 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanChanges;
+import com.wkrzywiec.medium.kanban.model.KanbanDTO;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatusUpdateDTO;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import org.hibernate.Hibernate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Runs operations on a single Kanban board on its shard and the ones on
+ * all boards on every shard in parallel, merging the results by id.
+ */
+public class ShardedKanbanService implements KanbanService {
+
+    private final KanbanService kanbanService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ShardedKanbanService(KanbanService kanbanService, ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.kanbanService = kanbanService;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Boards read on worker threads are detached, so their tasks are
+     * loaded before the transaction of their shard ends.
+     */
+    @Override
+    public List<Kanban> getAllKanbanBoards() {
+        return shardRouter.onEachShard(shard -> readOnlyTransaction.execute(transaction -> {
+                    List<Kanban> kanbans = kanbanService.getAllKanbanBoards();
+                    kanbans.forEach(kanban -> Hibernate.initialize(kanban.getTasks()));
+                    return kanbans;
+                })).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Kanban::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CursorPage<Kanban> getKanbanBoardsPage(String after, int limit) {
+        return CursorPage.merge(
+                shardRouter.onEachShard(shard -> kanbanService.getKanbanBoardsPage(after, limit)),
+                Kanban::getId, limit);
+    }
+
+    @Override
+    public List<KanbanSummary> getKanbanSummaries() {
+        return shardRouter.onEachShard(shard -> kanbanService.getKanbanSummaries()).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(KanbanSummary::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Kanban> getKanbanById(Long id) {
+        return shardRouter.onShardOf(id, () -> kanbanService.getKanbanById(id));
+    }
+
+    @Override
+    public Optional<Long> getKanbanVersion(Long id) {
+        return shardRouter.onShardOf(id, () -> kanbanService.getKanbanVersion(id));
+    }
+
+    @Override
+    public Optional<KanbanChanges> getKanbanChanges(Long id, Long sinceRevision) {
+        return shardRouter.onShardOf(id, () -> kanbanService.getKanbanChanges(id, sinceRevision));
+    }
+
+    @Override
+    public Optional<Kanban> getKanbanByTitle(String title) {
+        return shardRouter.onEachShard(shard -> kanbanService.getKanbanByTitle(title)).stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(Comparator.comparing(Kanban::getId));
+    }
+
+    @Override
+    public Kanban saveNewKanban(KanbanDTO kanbanDTO) {
+        return shardRouter.onShard(shardRouter.nextShard(), () -> kanbanService.saveNewKanban(kanbanDTO));
+    }
+
+    @Override
+    public Kanban updateKanban(Kanban oldKanban, KanbanDTO newKanbanDTO) {
+        return shardRouter.onShard(shardRouter.shardOf(oldKanban.getId()), () -> kanbanService.updateKanban(oldKanban, newKanbanDTO));
+    }
+
+    @Override
+    public void deleteKanban(Kanban kanban) {
+        shardRouter.onShard(shardRouter.shardOf(kanban.getId()), () -> {
+            kanbanService.deleteKanban(kanban);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Task> addNewTaskToKanban(Long kanbanId, TaskDTO taskDTO) {
+        return shardRouter.onShardOf(kanbanId, () -> kanbanService.addNewTaskToKanban(kanbanId, taskDTO));
+    }
+
+    @Override
+    public Optional<List<Long>> addNewTasksToKanban(Long kanbanId, List<TaskDTO> taskDTOs) {
+        return shardRouter.onShardOf(kanbanId, () -> kanbanService.addNewTasksToKanban(kanbanId, taskDTOs));
+    }
+
+    @Override
+    public Optional<BulkUpdateResult> updateTasksStatus(Long kanbanId, TaskStatusUpdateDTO statusUpdateDTO) {
+        return shardRouter.onShardOf(kanbanId, () -> kanbanService.updateTasksStatus(kanbanId, statusUpdateDTO));
+    }
+}
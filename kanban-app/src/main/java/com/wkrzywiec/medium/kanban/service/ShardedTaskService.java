@@ -0,0 +1,167 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskPositionDTO;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Runs operations on a single task on the shard of its Kanban board and
+ * the ones on all tasks on every shard in parallel, merging the results.
+ * Tasks can't be moved to a board on another shard, as their ids tell
+ * the shard they are stored on.
+ */
+public class ShardedTaskService implements TaskService {
+
+    private final TaskService taskService;
+    private final ShardRouter shardRouter;
+
+    public ShardedTaskService(TaskService taskService, ShardRouter shardRouter) {
+        this.taskService = taskService;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return shardRouter.onEachShard(shard -> taskService.getAllTasks()).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Task::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CursorPage<Task> getTasksPage(String after, int limit) {
+        return CursorPage.merge(
+                shardRouter.onEachShard(shard -> taskService.getTasksPage(after, limit)),
+                Task::getId, limit);
+    }
+
+    /**
+     * Search results of shards can't be ranked against each other, so they
+     * are interleaved: the best match of each shard first, then the second
+     * ones and so on. The cursor stays a position in these merged results,
+     * so each shard is searched up to the end of the requested page.
+     */
+    @Override
+    public CursorPage<Task> searchTasks(String query, String after, int limit) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        long offset = CursorPage.decodeCursor(after);
+        long count = offset + pageSize + 1;
+        List<List<Task>> shardsTasks = shardRouter.onEachShard(shard -> searchFirstTasks(query, count));
+        List<Task> tasksList = new ArrayList<>();
+        for (int rank = 0; tasksList.size() < count; rank++) {
+            int size = tasksList.size();
+            for (List<Task> shardTasks : shardsTasks) {
+                if (rank < shardTasks.size()) {
+                    tasksList.add(shardTasks.get(rank));
+                }
+            }
+            if (tasksList.size() == size) {
+                break;
+            }
+        }
+        List<Task> page = tasksList.size() <= offset
+                ? new ArrayList<>()
+                : new ArrayList<>(tasksList.subList((int) offset, (int) Math.min(tasksList.size(), offset + pageSize)));
+        String nextCursor = tasksList.size() > offset + pageSize ? CursorPage.encodeCursor(offset + pageSize) : null;
+        return new CursorPage<>(page, nextCursor);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(Long id) {
+        return shardRouter.onShardOf(id, () -> taskService.getTaskById(id));
+    }
+
+    @Override
+    public Optional<Long> getTaskVersion(Long id) {
+        return shardRouter.onShardOf(id, () -> taskService.getTaskVersion(id));
+    }
+
+    @Override
+    public Optional<Task> getTaskByTitle(String title) {
+        return shardRouter.onEachShard(shard -> taskService.getTaskByTitle(title)).stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(Comparator.comparing(Task::getId));
+    }
+
+    @Override
+    public Task saveNewTask(TaskDTO taskDTO) {
+        return shardRouter.onShard(shardRouter.nextShard(), () -> taskService.saveNewTask(taskDTO));
+    }
+
+    @Override
+    public Task updateTask(Task oldTask, TaskDTO newTaskDTO) {
+        return shardRouter.onShard(shardRouter.shardOf(oldTask.getId()), () -> taskService.updateTask(oldTask, newTaskDTO));
+    }
+
+    /**
+     * Updates the tasks of each shard in a separate transaction.
+     */
+    @Override
+    public List<Task> updateTasks(Map<Long, TaskDTO> taskDTOs) {
+        Map<Integer, Map<Long, TaskDTO>> shardsTaskDTOs = new TreeMap<>();
+        taskDTOs.forEach((id, taskDTO) -> {
+            if (shardRouter.hasShardFor(id)) {
+                shardsTaskDTOs.computeIfAbsent(shardRouter.shardOf(id), shard -> new HashMap<>()).put(id, taskDTO);
+            }
+        });
+        return shardRouter.onShards(shardsTaskDTOs.keySet(), shard -> taskService.updateTasks(shardsTaskDTOs.get(shard))).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Task moveTaskPosition(Task task, TaskPositionDTO taskPositionDTO) {
+        return shardRouter.onShard(shardRouter.shardOf(task.getId()), () -> taskService.moveTaskPosition(task, taskPositionDTO));
+    }
+
+    @Override
+    public void deleteTask(Task task) {
+        shardRouter.onShard(shardRouter.shardOf(task.getId()), () -> {
+            taskService.deleteTask(task);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<BulkUpdateResult> moveTasks(TaskMoveDTO taskMoveDTO) {
+        Long kanbanId = taskMoveDTO.getKanbanId();
+        List<Long> taskIds = taskMoveDTO.getTaskIds();
+        if (kanbanId == null || taskIds == null || taskIds.isEmpty()) {
+            throw new IllegalArgumentException("Target Kanban board id and task ids must not be empty");
+        }
+        if (!shardRouter.hasShardFor(kanbanId)) {
+            return Optional.empty();
+        }
+        int shard = shardRouter.shardOf(kanbanId);
+        if (taskIds.stream().filter(shardRouter::hasShardFor).anyMatch(id -> shardRouter.shardOf(id) != shard)) {
+            throw new IllegalArgumentException("Tasks can be moved only to Kanban boards stored on the same shard");
+        }
+        return shardRouter.onShard(shard, () -> taskService.moveTasks(taskMoveDTO));
+    }
+
+    private List<Task> searchFirstTasks(String query, long count) {
+        List<Task> tasksList = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<Task> page = taskService.searchTasks(query, after,
+                    (int) Math.min(count - tasksList.size(), CursorPage.MAX_LIMIT));
+            tasksList.addAll(page.getItems());
+            after = page.getNextCursor();
+        } while (after != null && tasksList.size() < count);
+        return tasksList;
+    }
+}
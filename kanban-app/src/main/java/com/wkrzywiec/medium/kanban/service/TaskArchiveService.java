@@ -0,0 +1,14 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.TaskArchive;
+
+public interface TaskArchiveService {
+
+    String ARCHIVED_COUNTER = "kanban.archive.archived";
+    String LAG_GAUGE = "kanban.archive.lag";
+
+    CursorPage<TaskArchive> getArchivedTasksPage(Long kanbanId, String after, int limit);
+
+    int archiveDoneTasks();
+}
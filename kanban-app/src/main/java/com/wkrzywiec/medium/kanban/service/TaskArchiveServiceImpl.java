@@ -0,0 +1,189 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import com.wkrzywiec.medium.kanban.model.TaskArchive;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskArchiveRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves DONE tasks older than kanban.archive.max-age from the task table to
+ * task_archive, so Kanban board reads only load tasks that are still in use.
+ * Tasks are archived in chunks of kanban.archive.chunk-size, each in its own
+ * short transaction, which locks only the boards and the DONE tasks of that
+ * chunk. Archived tasks are recorded as deleted in the board change feed.
+ */
+@Service
+public class TaskArchiveServiceImpl implements TaskArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskArchiveServiceImpl.class);
+
+    private final TaskRepository taskRepository;
+    private final KanbanRepository kanbanRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final TaskArchiveRepository taskArchiveRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedTasks;
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final long maxAge;
+    private final int chunkSize;
+
+    public TaskArchiveServiceImpl(TaskRepository taskRepository,
+                                  KanbanRepository kanbanRepository,
+                                  TaskTombstoneRepository taskTombstoneRepository,
+                                  TaskArchiveRepository taskArchiveRepository,
+                                  EntityCacheEvictor entityCacheEvictor,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ShardRouter shardRouter,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${kanban.archive.max-age:2592000000}") long maxAge,
+                                  @Value("${kanban.archive.chunk-size:500}") int chunkSize) {
+        this.taskRepository = taskRepository;
+        this.kanbanRepository = kanbanRepository;
+        this.taskTombstoneRepository = taskTombstoneRepository;
+        this.taskArchiveRepository = taskArchiveRepository;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+        this.archivedTasks = Counter.builder(ARCHIVED_COUNTER)
+                .description("Number of DONE tasks moved to the archive")
+                .register(meterRegistry);
+        Gauge.builder(LAG_GAUGE, lagSeconds, AtomicLong::get)
+                .description("How long the oldest DONE task waits for archiving past its max age, as of the last run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TaskArchive> getArchivedTasksPage(Long kanbanId, String after, int limit) {
+        if (kanbanId == null) {
+            return CursorPage.merge(
+                    shardRouter.onEachShard(shard -> findArchivedTasksPage(null, after, limit)),
+                    TaskArchive::getId, limit);
+        }
+        if (!shardRouter.hasShardFor(kanbanId)) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+        return shardRouter.onShard(shardRouter.shardOf(kanbanId), () -> findArchivedTasksPage(kanbanId, after, limit));
+    }
+
+    private CursorPage<TaskArchive> findArchivedTasksPage(Long kanbanId, String after, int limit) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        Long afterId = CursorPage.decodeCursor(after);
+        logger.info("Retrieving page of {} archived tasks of Kanban board with id {} after id {}", pageSize, kanbanId, afterId);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<TaskArchive> tasksList = kanbanId == null
+                ? taskArchiveRepository.findByIdGreaterThanOrderByIdAsc(afterId, page)
+                : taskArchiveRepository.findByKanbanIdAndIdGreaterThanOrderByIdAsc(kanbanId, afterId, page);
+        String nextCursor = null;
+        if (tasksList.size() > pageSize) {
+            tasksList = new ArrayList<>(tasksList.subList(0, pageSize));
+            nextCursor = CursorPage.encodeCursor(tasksList.get(pageSize - 1).getId());
+        }
+        logger.info("Retrieved {} archived tasks", tasksList.size());
+        return new CursorPage<>(tasksList, nextCursor);
+    }
+
+    @Override
+    public int archiveDoneTasks() {
+        Instant before = Instant.now().minusMillis(maxAge);
+        logger.info("Archiving tasks done before {}", before);
+        int archived = shardRouter.onEachShard(shard -> {
+            int shardArchived = 0;
+            // a chunk whose tasks all changed before being locked archives nothing, but more may still be due
+            for (List<Long> candidateIds = findCandidateIds(before); !candidateIds.isEmpty(); candidateIds = findCandidateIds(before)) {
+                List<Long> chunk = candidateIds;
+                shardArchived += transactionTemplate.execute(transaction -> archiveChunk(chunk, before));
+            }
+            return shardArchived;
+        }).stream().mapToInt(Integer::intValue).sum();
+        lagSeconds.set(shardRouter.onEachShard(shard -> taskRepository.findOldestDoneAt(TaskStatus.DONE)).stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(Comparator.naturalOrder())
+                .map(oldest -> Math.max(0L, Duration.between(oldest, before).getSeconds()))
+                .orElse(0L));
+        logger.info("{} tasks archived", archived);
+        return archived;
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.archive.interval:600000}", initialDelayString = "${kanban.archive.interval:600000}")
+    public void archiveDoneTasksOnSchedule() {
+        try {
+            archiveDoneTasks();
+        } catch (Exception e) {
+            logger.error("Error occurred while archiving tasks", e);
+        }
+    }
+
+    private List<Long> findCandidateIds(Instant before) {
+        return taskRepository.findIdsByStatusAndDoneAtBefore(TaskStatus.DONE, before, PageRequest.of(0, chunkSize));
+    }
+
+    private int archiveChunk(List<Long> candidateIds, Instant before) {
+        // board rows are locked in id order before task rows, same as task writes do
+        List<Long> kanbanIds = taskRepository.findKanbanIdsByIdIn(candidateIds);
+        Map<Long, Long> revisions = new HashMap<>();
+        for (Long kanbanId : kanbanIds) {
+            revisions.put(kanbanId, kanbanRepository.nextRevision(kanbanId));
+        }
+        List<Long> taskIds = taskRepository.lockIdsByIdInAndStatusAndDoneAtBefore(candidateIds, TaskStatus.DONE, before);
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+
+        for (Long kanbanId : kanbanIds) {
+            taskTombstoneRepository.insertForTasks(kanbanId, taskIds, revisions.get(kanbanId));
+        }
+        taskArchiveRepository.insertFromTasks(taskIds, TaskStatus.DONE, before, Instant.now());
+        int archived = taskRepository.deleteArchived(taskIds, TaskStatus.DONE, before);
+        kanbanIds.forEach(entityCacheEvictor::evictKanbanTasks);
+        entityCacheEvictor.evictAllTasks();
+        entityCacheEvictor.evictQueryResults();
+
+        for (Long kanbanId : kanbanIds) {
+            Long revision = revisions.get(kanbanId);
+            eventPublisher.publishEvent(new KanbanEvent(KanbanEvent.Type.TASK_DELETED, kanbanId, revision, new ArrayList<>(),
+                    taskTombstoneRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(kanbanId, revision - 1)));
+        }
+        archivedTasks.increment(archived);
+        logger.info("Chunk of {} tasks archived", archived);
+        return archived;
+    }
+}
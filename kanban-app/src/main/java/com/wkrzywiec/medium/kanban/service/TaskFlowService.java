@@ -0,0 +1,29 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.CumulativeFlowDay;
+import com.wkrzywiec.medium.kanban.model.CycleTimeDay;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.ThroughputDay;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskFlowService {
+
+    int DEFAULT_REPORT_DAYS = 30;
+    int MAX_REPORT_DAYS = 3660;
+
+    void recordNewTasks(Collection<Task> tasks);
+
+    void recordTasks(Collection<Task> tasks);
+
+    void recordTasksRemoved(Collection<Long> taskIds);
+
+    Optional<List<CumulativeFlowDay>> getCumulativeFlow(Long kanbanId, LocalDate from, LocalDate to);
+
+    Optional<List<ThroughputDay>> getThroughput(Long kanbanId, LocalDate from, LocalDate to);
+
+    Optional<List<CycleTimeDay>> getCycleTime(Long kanbanId, LocalDate from, LocalDate to);
+}
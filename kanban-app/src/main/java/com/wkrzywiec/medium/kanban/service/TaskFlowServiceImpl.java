@@ -0,0 +1,263 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.CumulativeFlowDay;
+import com.wkrzywiec.medium.kanban.model.CycleTimeDay;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.model.ThroughputDay;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.ColumnState;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.CycleTimeTotal;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.FlowTotal;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.Transition;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Records tasks arriving in, moving between and departing from the status
+ * columns of Kanban boards, diffing each task against its last recorded
+ * column, and reports the flow of a board per day from the daily totals.
+ * Days are UTC days. A task counts as completed when it arrives in DONE from
+ * another status, or is created in it; its cycle time runs from its first
+ * arrival in INPROGRESS, or from its first arrival on a board if it skipped
+ * INPROGRESS. Tasks without a status aren't in any column.
+ * <p>
+ * Recording methods join the transaction of the write they record, which
+ * holds the row locks of the boards involved.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskFlowServiceImpl implements TaskFlowService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskFlowServiceImpl.class);
+
+    private final TaskFlowRepository taskFlowRepository;
+    private final KanbanRepository kanbanRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    @Transactional
+    public void recordNewTasks(Collection<Task> tasks) {
+        record(tasks, new HashMap<>());
+    }
+
+    @Override
+    @Transactional
+    public void recordTasks(Collection<Task> tasks) {
+        List<Long> taskIds = tasks.stream().map(Task::getId).filter(Objects::nonNull).collect(Collectors.toList());
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        record(tasks, taskFlowRepository.findLatestStates(taskIds));
+    }
+
+    @Override
+    @Transactional
+    public void recordTasksRemoved(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        LocalDate today = toDate(now);
+        List<Transition> transitions = new ArrayList<>();
+        Map<ColumnState, FlowTotal> flows = new LinkedHashMap<>();
+        taskFlowRepository.findLatestStates(taskIds).forEach((taskId, previous) -> {
+            if (previous.getStatus() != null) {
+                transitions.add(new Transition(taskId, previous.getKanbanId(), previous.getStatus(), null, now));
+                addFlow(flows, previous, today, 0, 1);
+            }
+        });
+        save(transitions, flows, new ArrayList<>());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<CumulativeFlowDay>> getCumulativeFlow(Long kanbanId, LocalDate from, LocalDate to) {
+        LocalDate lastDay = lastDay(to);
+        LocalDate firstDay = firstDay(from, lastDay);
+        logger.info("Retrieving cumulative flow of Kanban board with id {} from {} to {}", kanbanId, firstDay, lastDay);
+        return onKanbanShard(kanbanId, () -> {
+            Map<TaskStatus, Long> tasks = new EnumMap<>(TaskStatus.class);
+            tasks.putAll(taskFlowRepository.sumFlowsBefore(kanbanId, firstDay));
+            Map<LocalDate, List<FlowTotal>> flowsByDate = taskFlowRepository.findFlowsBetween(kanbanId, firstDay, lastDay).stream()
+                    .collect(Collectors.groupingBy(FlowTotal::getDate));
+            List<CumulativeFlowDay> days = new ArrayList<>();
+            for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+                for (FlowTotal flow : flowsByDate.getOrDefault(date, new ArrayList<>())) {
+                    tasks.merge(flow.getStatus(), (long) flow.getArrived() - flow.getDeparted(), Long::sum);
+                }
+                CumulativeFlowDay day = new CumulativeFlowDay(date);
+                tasks.forEach(day::addTaskCount);
+                days.add(day);
+            }
+            return days;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<ThroughputDay>> getThroughput(Long kanbanId, LocalDate from, LocalDate to) {
+        LocalDate lastDay = lastDay(to);
+        LocalDate firstDay = firstDay(from, lastDay);
+        logger.info("Retrieving throughput of Kanban board with id {} from {} to {}", kanbanId, firstDay, lastDay);
+        return onKanbanShard(kanbanId, () -> collectDays(kanbanId, firstDay, lastDay,
+                (date, total) -> new ThroughputDay(date, total == null ? 0 : total.getCompleted())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<CycleTimeDay>> getCycleTime(Long kanbanId, LocalDate from, LocalDate to) {
+        LocalDate lastDay = lastDay(to);
+        LocalDate firstDay = firstDay(from, lastDay);
+        logger.info("Retrieving cycle time of Kanban board with id {} from {} to {}", kanbanId, firstDay, lastDay);
+        return onKanbanShard(kanbanId, () -> collectDays(kanbanId, firstDay, lastDay, (date, total) -> total == null
+                ? new CycleTimeDay(date, 0, 0, 0)
+                : new CycleTimeDay(date, total.getCompleted(), total.getTotalSeconds() / total.getCompleted(), total.getMaxSeconds())));
+    }
+
+    private void record(Collection<Task> tasks, Map<Long, ColumnState> previousStates) {
+        Instant now = Instant.now();
+        LocalDate today = toDate(now);
+        List<Transition> transitions = new ArrayList<>();
+        Map<ColumnState, FlowTotal> flows = new LinkedHashMap<>();
+        List<Task> completedTasks = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getId() == null) {
+                continue;
+            }
+            ColumnState previous = previousStates.get(task.getId());
+            if (previous != null && previous.getStatus() == null) {
+                previous = null;
+            }
+            ColumnState current = task.getKanbanId() == null || task.getStatus() == null
+                    ? null
+                    : new ColumnState(task.getKanbanId(), task.getStatus());
+            if (Objects.equals(previous, current)) {
+                continue;
+            }
+            if (previous != null && current != null && previous.getKanbanId().equals(current.getKanbanId())) {
+                transitions.add(new Transition(task.getId(), current.getKanbanId(), previous.getStatus(), current.getStatus(), now));
+            } else {
+                if (previous != null) {
+                    transitions.add(new Transition(task.getId(), previous.getKanbanId(), previous.getStatus(), null, now));
+                }
+                if (current != null) {
+                    transitions.add(new Transition(task.getId(), current.getKanbanId(), null, current.getStatus(), now));
+                }
+            }
+            if (previous != null) {
+                addFlow(flows, previous, today, 0, 1);
+            }
+            if (current != null) {
+                addFlow(flows, current, today, 1, 0);
+                if (current.getStatus() == TaskStatus.DONE && (previous == null || previous.getStatus() != TaskStatus.DONE)) {
+                    completedTasks.add(task);
+                }
+            }
+        }
+        save(transitions, flows, cycleTimes(completedTasks, now, today));
+    }
+
+    /**
+     * Looks up when work on completed tasks started before their completion
+     * is recorded, so it can't be mistaken for the start.
+     */
+    private List<CycleTimeTotal> cycleTimes(List<Task> completedTasks, Instant now, LocalDate today) {
+        if (completedTasks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Instant> workStarts = taskFlowRepository.findWorkStarts(
+                completedTasks.stream().map(Task::getId).collect(Collectors.toList()), TaskStatus.INPROGRESS);
+        Map<Long, CycleTimeTotal> cycleTimes = new LinkedHashMap<>();
+        for (Task task : completedTasks) {
+            long seconds = Math.max(0, Duration.between(workStarts.getOrDefault(task.getId(), now), now).getSeconds());
+            CycleTimeTotal total = cycleTimes.computeIfAbsent(task.getKanbanId(), id -> new CycleTimeTotal(id, today, 0, 0, 0));
+            total.setCompleted(total.getCompleted() + 1);
+            total.setTotalSeconds(total.getTotalSeconds() + seconds);
+            total.setMaxSeconds(Math.max(total.getMaxSeconds(), seconds));
+        }
+        return new ArrayList<>(cycleTimes.values());
+    }
+
+    private void save(List<Transition> transitions, Map<ColumnState, FlowTotal> flows, List<CycleTimeTotal> cycleTimes) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        logger.debug("Recording {} task status transitions", transitions.size());
+        taskFlowRepository.insertTransitions(transitions);
+        taskFlowRepository.addFlows(new ArrayList<>(flows.values()));
+        if (!cycleTimes.isEmpty()) {
+            taskFlowRepository.addCycleTimes(cycleTimes);
+        }
+    }
+
+    private static void addFlow(Map<ColumnState, FlowTotal> flows, ColumnState column, LocalDate date, int arrived, int departed) {
+        FlowTotal flow = flows.computeIfAbsent(column, key -> new FlowTotal(key.getKanbanId(), date, key.getStatus(), 0, 0));
+        flow.setArrived(flow.getArrived() + arrived);
+        flow.setDeparted(flow.getDeparted() + departed);
+    }
+
+    private <T> List<T> collectDays(Long kanbanId, LocalDate firstDay, LocalDate lastDay,
+                                    BiFunction<LocalDate, CycleTimeTotal, T> toDay) {
+        Map<LocalDate, CycleTimeTotal> totals = taskFlowRepository.findCycleTimesBetween(kanbanId, firstDay, lastDay).stream()
+                .collect(Collectors.toMap(CycleTimeTotal::getDate, Function.identity()));
+        List<T> days = new ArrayList<>();
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            days.add(toDay.apply(date, totals.get(date)));
+        }
+        return days;
+    }
+
+    private <T> Optional<List<T>> onKanbanShard(Long kanbanId, Supplier<List<T>> report) {
+        return shardRouter.onShardOf(kanbanId, () -> {
+            if (!kanbanRepository.existsById(kanbanId)) {
+                logger.warn("Kanban board with id {} not found", kanbanId);
+                return Optional.empty();
+            }
+            return Optional.of(report.get());
+        });
+    }
+
+    private static LocalDate lastDay(LocalDate to) {
+        return to != null ? to : toDate(Instant.now());
+    }
+
+    private static LocalDate firstDay(LocalDate from, LocalDate lastDay) {
+        LocalDate firstDay = from != null ? from : lastDay.minusDays(DEFAULT_REPORT_DAYS - 1);
+        if (firstDay.isAfter(lastDay)) {
+            throw new IllegalArgumentException("Report start date must not be after its end date");
+        }
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_REPORT_DAYS) {
+            throw new IllegalArgumentException("Report can't span more than " + MAX_REPORT_DAYS + " days");
+        }
+        return firstDay;
+    }
+
+    private static LocalDate toDate(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+}
@@ -0,0 +1,118 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Spreads positions of tasks in a status column of a Kanban board evenly
+ * again, once repeated moves between the same neighbours used up most of
+ * the gap between them. Moving a task publishes a RebalanceRequest when
+ * that happens and the column is rebalanced in the background after the
+ * move commits; only a move that finds no gap at all rebalances in place.
+ */
+@Component
+public class TaskPositionRebalancer implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskPositionRebalancer.class);
+
+    /**
+     * Smallest gap between neighbouring positions left by a move before
+     * the column is rebalanced in the background.
+     */
+    static final long MIN_GAP = 64;
+
+    private final TaskRepository taskRepository;
+    private final KanbanRepository kanbanRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<RebalanceRequest> pendingRequests = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-position-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TaskPositionRebalancer(TaskRepository taskRepository,
+                                  KanbanRepository kanbanRepository,
+                                  EntityCacheEvictor entityCacheEvictor,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ShardRouter shardRouter,
+                                  PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.kanbanRepository = kanbanRepository;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Rebalances a column within the current transaction, which must already
+     * hold the board revision lock taken by KanbanRepository.nextRevision.
+     */
+    public int rebalance(Long kanbanId, TaskStatus status, Long revision, Long skippedTaskId) {
+        logger.info("Rebalancing positions of tasks in {} column of Kanban board with id {}", status, kanbanId);
+        int rebalanced = taskRepository.rebalancePositions(kanbanId, status, revision, skippedTaskId);
+        entityCacheEvictor.evictAllTasks();
+        entityCacheEvictor.evictKanbanTasks(kanbanId);
+        if (rebalanced > 0) {
+            List<Task> tasks = taskRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(kanbanId, revision - 1);
+            eventPublisher.publishEvent(new KanbanEvent(KanbanEvent.Type.TASK_UPDATED, kanbanId, revision, tasks, new ArrayList<>()));
+        }
+        logger.info("Positions of {} tasks in {} column of Kanban board with id {} rebalanced", rebalanced, status, kanbanId);
+        return rebalanced;
+    }
+
+    @TransactionalEventListener
+    public void onRebalanceRequest(RebalanceRequest request) {
+        if (!pendingRequests.add(request)) {
+            return;
+        }
+        executor.execute(() -> {
+            pendingRequests.remove(request);
+            try {
+                shardRouter.onShard(shardRouter.shardOf(request.getKanbanId()),
+                        () -> transactionTemplate.execute(transaction -> rebalance(request.getKanbanId(), request.getStatus(),
+                                kanbanRepository.nextRevision(request.getKanbanId()), null)));
+            } catch (Exception e) {
+                logger.error("Error occurred while rebalancing {} column of Kanban board with id {}",
+                        request.getStatus(), request.getKanbanId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Data
+    public static class RebalanceRequest {
+
+        private final Long kanbanId;
+        private final TaskStatus status;
+    }
+}
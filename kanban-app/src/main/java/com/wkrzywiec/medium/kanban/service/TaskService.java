@@ -1,22 +1,39 @@
 package com.wkrzywiec.medium.kanban.service;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
 import com.wkrzywiec.medium.kanban.model.Task;
 import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskPositionDTO;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface TaskService {
 
     List<Task> getAllTasks();
 
+    CursorPage<Task> getTasksPage(String after, int limit);
+
+    CursorPage<Task> searchTasks(String query, String after, int limit);
+
     Optional<Task> getTaskById(Long id);
 
+    Optional<Long> getTaskVersion(Long id);
+
     Optional<Task> getTaskByTitle(String title);
 
     Task saveNewTask(TaskDTO taskDTO);
 
     Task updateTask(Task oldTask, TaskDTO newTaskDTO);
 
+    List<Task> updateTasks(Map<Long, TaskDTO> taskDTOs);
+
+    Task moveTaskPosition(Task task, TaskPositionDTO taskPositionDTO);
+
     void deleteTask(Task task);
+
+    Optional<BulkUpdateResult> moveTasks(TaskMoveDTO taskMoveDTO);
 }
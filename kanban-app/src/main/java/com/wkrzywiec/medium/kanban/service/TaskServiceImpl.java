@@ -1,17 +1,34 @@
 package com.wkrzywiec.medium.kanban.service;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
 import com.wkrzywiec.medium.kanban.model.Task;
 import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.model.TaskPositionDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.model.TaskTombstone;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
 import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
@@ -20,9 +37,15 @@ public class TaskServiceImpl implements TaskService {
     private static final Logger logger = LoggerFactory.getLogger(TaskServiceImpl.class);
 
     private final TaskRepository taskRepository;
+    private final KanbanRepository kanbanRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskPositionRebalancer taskPositionRebalancer;
+    private final TaskFlowService taskFlowService;
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<Task> getAllTasks() {
         logger.info("Retrieving all tasks");
         List<Task> tasksList = new ArrayList<>();
@@ -32,7 +55,42 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public CursorPage<Task> getTasksPage(String after, int limit) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        Long afterId = CursorPage.decodeCursor(after);
+        logger.info("Retrieving page of {} tasks after id {}", pageSize, afterId);
+        List<Task> tasksList = taskRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        String nextCursor = null;
+        if (tasksList.size() > pageSize) {
+            tasksList = new ArrayList<>(tasksList.subList(0, pageSize));
+            nextCursor = CursorPage.encodeCursor(tasksList.get(pageSize - 1).getId());
+        }
+        logger.info("Retrieved {} tasks", tasksList.size());
+        return new CursorPage<>(tasksList, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Task> searchTasks(String query, String after, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        int pageSize = CursorPage.normalizeLimit(limit);
+        long offset = CursorPage.decodeCursor(after);
+        logger.info("Searching page of {} tasks matching '{}' from position {}", pageSize, query, offset);
+        List<Task> tasksList = taskRepository.search(query.trim(), offset, pageSize + 1);
+        String nextCursor = null;
+        if (tasksList.size() > pageSize) {
+            tasksList = new ArrayList<>(tasksList.subList(0, pageSize));
+            nextCursor = CursorPage.encodeCursor(offset + pageSize);
+        }
+        logger.info("Found {} tasks", tasksList.size());
+        return new CursorPage<>(tasksList, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Task> getTaskById(Long id) {
         logger.info("Retrieving task with id: {}", id);
         Optional<Task> task = taskRepository.findById(id);
@@ -45,7 +103,14 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public Optional<Long> getTaskVersion(Long id) {
+        logger.info("Retrieving version of task with id: {}", id);
+        return taskRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Task> getTaskByTitle(String title) {
         logger.info("Retrieving task with title: {}", title);
         Optional<Task> task = taskRepository.findByTitle(title);
@@ -63,6 +128,7 @@ public class TaskServiceImpl implements TaskService {
         logger.info("Saving new task");
         Task task = convertDTOToTask(taskDTO);
         task = taskRepository.save(task);
+        entityCacheEvictor.invalidateTask(task.getId(), task.getKanbanId());
         logger.info("New task saved successfully with id: {}", task.getId());
         return task;
     }
@@ -71,20 +137,200 @@ public class TaskServiceImpl implements TaskService {
     @Transactional
     public Task updateTask(Task oldTask, TaskDTO newTaskDTO) {
         logger.info("Updating task with id: {}", oldTask.getId());
+        TaskStatus previousStatus = oldTask.getStatus();
         Task updatedTask = updateTaskFromDTO(oldTask, newTaskDTO);
+        if (updatedTask.getKanbanId() != null) {
+            updatedTask.setRevision(kanbanRepository.nextRevision(updatedTask.getKanbanId()));
+            if (previousStatus != updatedTask.getStatus()) {
+                updatedTask.setPosition(taskRepository.findLastPosition(updatedTask.getKanbanId(), updatedTask.getStatus())
+                        .orElse(0L) + Task.POSITION_GAP);
+            }
+        }
         updatedTask = taskRepository.save(updatedTask);
+        entityCacheEvictor.invalidateTask(updatedTask.getId(), updatedTask.getKanbanId());
+        if (previousStatus != updatedTask.getStatus()) {
+            taskFlowService.recordTasks(Collections.singletonList(updatedTask));
+        }
+        if (updatedTask.getKanbanId() != null) {
+            KanbanEvent.Type type = previousStatus == updatedTask.getStatus() ? KanbanEvent.Type.TASK_UPDATED : KanbanEvent.Type.TASK_MOVED;
+            eventPublisher.publishEvent(KanbanEvent.taskUpdated(type, updatedTask));
+        }
         logger.info("Task with id {} updated successfully", oldTask.getId());
         return updatedTask;
     }
 
+    @Override
+    @Transactional
+    public List<Task> updateTasks(Map<Long, TaskDTO> taskDTOs) {
+        logger.info("Updating {} tasks", taskDTOs.size());
+        Map<Long, Long> revisions = new HashMap<>();
+        // board rows are locked in id order, so concurrent updates can't deadlock
+        for (Long kanbanId : taskRepository.findKanbanIdsByIdIn(taskDTOs.keySet())) {
+            revisions.put(kanbanId, kanbanRepository.nextRevision(kanbanId));
+        }
+        Map<Long, Map<TaskStatus, Long>> lastPositions = new HashMap<>();
+        List<Task> updatedTasks = new ArrayList<>();
+        List<Task> movedTasks = new ArrayList<>();
+        for (Task task : taskRepository.findAllById(taskDTOs.keySet())) {
+            TaskStatus previousStatus = task.getStatus();
+            updateTaskFromDTO(task, taskDTOs.get(task.getId()));
+            Long kanbanId = task.getKanbanId();
+            if (kanbanId != null) {
+                task.setRevision(revisions.get(kanbanId));
+                if (previousStatus != task.getStatus()) {
+                    Map<TaskStatus, Long> kanbanLastPositions = lastPositions.computeIfAbsent(kanbanId, id -> new HashMap<>());
+                    long position = kanbanLastPositions.computeIfAbsent(task.getStatus(),
+                            status -> taskRepository.findLastPosition(kanbanId, status).orElse(0L)) + Task.POSITION_GAP;
+                    kanbanLastPositions.put(task.getStatus(), position);
+                    task.setPosition(position);
+                }
+                KanbanEvent.Type type = previousStatus == task.getStatus() ? KanbanEvent.Type.TASK_UPDATED : KanbanEvent.Type.TASK_MOVED;
+                eventPublisher.publishEvent(KanbanEvent.taskUpdated(type, task));
+            }
+            entityCacheEvictor.invalidateTask(task.getId(), kanbanId);
+            updatedTasks.add(task);
+            if (previousStatus != task.getStatus()) {
+                movedTasks.add(task);
+            }
+        }
+        taskFlowService.recordTasks(movedTasks);
+        logger.info("{} tasks updated", updatedTasks.size());
+        return updatedTasks;
+    }
+
+    @Override
+    @Transactional
+    public Task moveTaskPosition(Task task, TaskPositionDTO taskPositionDTO) {
+        TaskStatus status = taskPositionDTO.getStatus() != null ? taskPositionDTO.getStatus() : task.getStatus();
+        Long afterTaskId = taskPositionDTO.getAfterTaskId();
+        if (task.getKanbanId() == null || status == null) {
+            throw new IllegalArgumentException("Only a task assigned to a Kanban board and with a status can be positioned");
+        }
+        if (task.getId().equals(afterTaskId)) {
+            throw new IllegalArgumentException("Task can't be positioned after itself");
+        }
+        logger.info("Moving task with id {} to {} column after task with id {}", task.getId(), status, afterTaskId);
+        Long revision = kanbanRepository.nextRevision(task.getKanbanId());
+        TaskStatus previousStatus = task.getStatus();
+        long position = positionAfter(task, status, afterTaskId, revision);
+        task.setStatus(status);
+        task.setPosition(position);
+        task.setRevision(revision);
+        Task movedTask = taskRepository.save(task);
+        entityCacheEvictor.invalidateTask(movedTask.getId(), movedTask.getKanbanId());
+        if (previousStatus != status) {
+            taskFlowService.recordTasks(Collections.singletonList(movedTask));
+        }
+        KanbanEvent.Type type = previousStatus == status ? KanbanEvent.Type.TASK_UPDATED : KanbanEvent.Type.TASK_MOVED;
+        eventPublisher.publishEvent(KanbanEvent.taskUpdated(type, movedTask));
+        logger.info("Task with id {} moved to position {} in {} column", task.getId(), position, status);
+        return movedTask;
+    }
+
     @Override
     @Transactional
     public void deleteTask(Task task) {
         logger.info("Deleting task with id: {}", task.getId());
         taskRepository.delete(task);
+        if (task.getKanbanId() != null) {
+            Long revision = kanbanRepository.nextRevision(task.getKanbanId());
+            TaskTombstone deletedTask = taskTombstoneRepository.save(new TaskTombstone(task.getId(), task.getKanbanId(), revision));
+            eventPublisher.publishEvent(KanbanEvent.taskDeleted(deletedTask));
+            taskFlowService.recordTasksRemoved(Collections.singletonList(task.getId()));
+        }
+        entityCacheEvictor.evictKanbanTasks(task.getKanbanId());
+        entityCacheEvictor.invalidateTask(task.getId(), task.getKanbanId());
         logger.info("Task with id {} deleted successfully", task.getId());
     }
 
+    @Override
+    @Transactional
+    public Optional<BulkUpdateResult> moveTasks(TaskMoveDTO taskMoveDTO) {
+        Long kanbanId = taskMoveDTO.getKanbanId();
+        List<Long> taskIds = taskMoveDTO.getTaskIds();
+        if (kanbanId == null || taskIds == null || taskIds.isEmpty()) {
+            throw new IllegalArgumentException("Target Kanban board id and task ids must not be empty");
+        }
+        logger.info("Moving {} tasks to Kanban board with id {}", taskIds.size(), kanbanId);
+        if (!kanbanRepository.existsById(kanbanId)) {
+            logger.warn("Kanban board with id {} not found", kanbanId);
+            return Optional.empty();
+        }
+        List<Long> sourceKanbanIds = taskRepository.findOtherKanbanIdsByIdIn(taskIds, kanbanId);
+        // board rows are locked in id order, so concurrent moves can't deadlock
+        SortedSet<Long> kanbanIds = new TreeSet<>(sourceKanbanIds);
+        kanbanIds.add(kanbanId);
+        Map<Long, Long> revisions = new HashMap<>();
+        for (Long id : kanbanIds) {
+            revisions.put(id, kanbanRepository.nextRevision(id));
+        }
+
+        for (Long sourceKanbanId : sourceKanbanIds) {
+            taskTombstoneRepository.insertForTasks(sourceKanbanId, taskIds, revisions.get(sourceKanbanId));
+        }
+        Long revision = revisions.get(kanbanId);
+        long positionShift = taskRepository.findLastPositionInKanban(kanbanId).orElse(0L) + Task.POSITION_GAP;
+        int moved = taskRepository.moveToKanban(taskIds, kanbanId, revision, positionShift);
+        kanbanIds.forEach(entityCacheEvictor::evictKanbanTasks);
+        entityCacheEvictor.evictQueryResults();
+        taskIds.forEach(taskId -> entityCacheEvictor.invalidateTask(taskId, null));
+
+        for (Long sourceKanbanId : sourceKanbanIds) {
+            Long sourceRevision = revisions.get(sourceKanbanId);
+            eventPublisher.publishEvent(new KanbanEvent(KanbanEvent.Type.TASK_DELETED, sourceKanbanId, sourceRevision, new ArrayList<>(),
+                    taskTombstoneRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(sourceKanbanId, sourceRevision - 1)));
+        }
+        if (moved > 0) {
+            List<Task> movedTasks = taskRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(kanbanId, revision - 1);
+            taskFlowService.recordTasks(movedTasks);
+            eventPublisher.publishEvent(new KanbanEvent(KanbanEvent.Type.TASK_MOVED, kanbanId, revision, movedTasks, new ArrayList<>()));
+        }
+        logger.info("{} tasks moved to Kanban board with id {}", moved, kanbanId);
+        return Optional.of(new BulkUpdateResult(moved, revision));
+    }
+
+    /**
+     * Picks a position between the task placed before (or top of the column)
+     * and the one following it, so only the moved task has to be updated.
+     * When there is no gap left, the column is rebalanced in place first;
+     * when the gap is getting small, it is rebalanced later in background.
+     */
+    private long positionAfter(Task task, TaskStatus status, Long afterTaskId, Long revision) {
+        Long kanbanId = task.getKanbanId();
+        Long previous = afterTaskId == null ? null : findPositionInColumn(afterTaskId, kanbanId, status);
+        Long next = findNextPosition(task, status, previous);
+        if (previous != null && next != null && next - previous < 2) {
+            taskPositionRebalancer.rebalance(kanbanId, status, revision, task.getId());
+            previous = findPositionInColumn(afterTaskId, kanbanId, status);
+            next = findNextPosition(task, status, previous);
+        }
+        if (previous == null) {
+            return next == null ? Task.POSITION_GAP : next - Task.POSITION_GAP;
+        }
+        if (next == null) {
+            return previous + Task.POSITION_GAP;
+        }
+        long gap = (next - previous) / 2;
+        if (gap < TaskPositionRebalancer.MIN_GAP) {
+            eventPublisher.publishEvent(new TaskPositionRebalancer.RebalanceRequest(kanbanId, status));
+        }
+        return previous + gap;
+    }
+
+    private Long findPositionInColumn(Long taskId, Long kanbanId, TaskStatus status) {
+        return taskRepository.findPositionInColumn(taskId, kanbanId, status)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        String.format("No task with id %d in %s column of Kanban board with id %d", taskId, status, kanbanId)));
+    }
+
+    private Long findNextPosition(Task task, TaskStatus status, Long previous) {
+        PageRequest first = PageRequest.of(0, 1);
+        List<Long> positions = previous == null
+                ? taskRepository.findFirstPositions(task.getKanbanId(), status, task.getId(), first)
+                : taskRepository.findPositionsAfter(task.getKanbanId(), status, task.getId(), previous, first);
+        return positions.isEmpty() ? null : positions.get(0);
+    }
+
     private Task convertDTOToTask(TaskDTO taskDTO) {
         Task task = new Task();
         task.setTitle(taskDTO.getTitle());
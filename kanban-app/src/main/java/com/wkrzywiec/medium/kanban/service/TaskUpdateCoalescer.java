@@ -0,0 +1,22 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+
+import java.util.Optional;
+
+public interface TaskUpdateCoalescer {
+
+    String REQUESTS_COUNTER = "kanban.coalescing.requests";
+    String WRITES_COUNTER = "kanban.coalescing.writes";
+    String PENDING_GAUGE = "kanban.coalescing.pending";
+    String RATIO_GAUGE = "kanban.coalescing.ratio";
+
+    /**
+     * Queues changes of a task to be merged with its other pending changes,
+     * returns all of them or empty if coalescing is off and the task has to
+     * be updated right away.
+     */
+    Optional<TaskDTO> submit(Long taskId, TaskDTO taskDTO);
+
+    void flush();
+}
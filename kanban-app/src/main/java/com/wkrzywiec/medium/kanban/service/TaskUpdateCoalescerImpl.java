@@ -0,0 +1,180 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Merges task updates sent in quick succession, enabled with
+ * kanban.coalescing.enabled. Pending changes are kept per task, later
+ * values win, and are written every kanban.coalescing.window ms, up to
+ * kanban.batch.size tasks per transaction. Every other request flushes
+ * them before it is handled (see TaskUpdateFlushInterceptor), so reads and
+ * other writes always see them. Changes stay pending until their write
+ * commits, so a request arriving while a scheduled flush is writing them
+ * waits for it, and changes that fail to be written are retried with the
+ * next flush. They are also flushed when the app shuts down, after which
+ * updates are no longer coalesced.
+ * <p>
+ * Pending changes are kept in the memory of this instance only, so with
+ * several instances requests of a client must be routed to the same one
+ * (sticky sessions) for it to read its own coalesced updates right away;
+ * other instances see them once the window has passed.
+ */
+@Service
+public class TaskUpdateCoalescerImpl implements TaskUpdateCoalescer, ApplicationListener<ContextClosedEvent>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskUpdateCoalescerImpl.class);
+
+    private final TaskService taskService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final ConcurrentMap<Long, TaskDTO> pending = new ConcurrentHashMap<>();
+    // submits hold the read lock, so none of them is left behind by the flush on shutdown
+    private final ReadWriteLock acceptingLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private final Counter requests;
+    private final Counter writes;
+    private boolean accepting = true;
+
+    public TaskUpdateCoalescerImpl(TaskService taskService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${kanban.coalescing.enabled:false}") boolean enabled,
+                                   @Value("${kanban.batch.size:500}") int batchSize) {
+        this.taskService = taskService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.requests = Counter.builder(REQUESTS_COUNTER)
+                .description("Number of task updates queued for coalescing")
+                .register(meterRegistry);
+        this.writes = Counter.builder(WRITES_COUNTER)
+                .description("Number of tasks written with coalesced updates")
+                .register(meterRegistry);
+        Gauge.builder(PENDING_GAUGE, pending, Map::size)
+                .description("Number of tasks with pending coalesced updates")
+                .register(meterRegistry);
+        Gauge.builder(RATIO_GAUGE, this, coalescer -> coalescer.writes.count() == 0
+                        ? 0 : coalescer.requests.count() / coalescer.writes.count())
+                .description("Task updates received per task written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<TaskDTO> submit(Long taskId, TaskDTO taskDTO) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        acceptingLock.readLock().lock();
+        try {
+            if (!accepting) {
+                return Optional.empty();
+            }
+            TaskDTO merged = pending.merge(taskId, taskDTO, TaskUpdateCoalescerImpl::merge);
+            requests.increment();
+            return Optional.of(merged);
+        } finally {
+            acceptingLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // one flush at a time, so changes of a task are never written out of order
+        synchronized (flushLock) {
+            List<Long> taskIds = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < taskIds.size(); from += batchSize) {
+                Map<Long, TaskDTO> taskDTOs = new HashMap<>();
+                for (Long taskId : taskIds.subList(from, Math.min(from + batchSize, taskIds.size()))) {
+                    TaskDTO taskDTO = pending.get(taskId);
+                    if (taskDTO != null) {
+                        taskDTOs.put(taskId, taskDTO);
+                    }
+                }
+                write(taskDTOs);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.coalescing.window:200}")
+    public void flushOnSchedule() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error occurred while writing coalesced task updates", e);
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        acceptingLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptingLock.writeLock().unlock();
+        }
+        logger.info("Writing {} pending task updates before shutdown", pending.size());
+        flush();
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * Writes a batch in one transaction and only then removes its changes
+     * from the pending ones, unless more changes of a task were merged in
+     * meanwhile. If it fails, tasks are written one by one, so a single
+     * broken update doesn't take the others down with it, and changes that
+     * still fail stay pending.
+     */
+    private void write(Map<Long, TaskDTO> taskDTOs) {
+        if (taskDTOs.isEmpty()) {
+            return;
+        }
+        try {
+            writes.increment(taskService.updateTasks(taskDTOs).size());
+            taskDTOs.forEach(pending::remove);
+        } catch (Exception e) {
+            if (taskDTOs.size() == 1) {
+                logger.error("Error occurred while writing coalesced updates of task with id {}, will retry: {}",
+                        taskDTOs.keySet().iterator().next(), taskDTOs.values().iterator().next(), e);
+                return;
+            }
+            logger.warn("Error occurred while writing coalesced updates of {} tasks, writing them one by one", taskDTOs.size(), e);
+            taskDTOs.forEach((taskId, taskDTO) -> write(Collections.singletonMap(taskId, taskDTO)));
+        }
+    }
+
+    private static TaskDTO merge(TaskDTO pending, TaskDTO update) {
+        return TaskDTO.builder()
+                .title(update.getTitle() != null ? update.getTitle() : pending.getTitle())
+                .description(update.getDescription() != null ? update.getDescription() : pending.getDescription())
+                .color(update.getColor() != null ? update.getColor() : pending.getColor())
+                .status(update.getStatus() != null ? update.getStatus() : pending.getStatus())
+                .build();
+    }
+}
@@ -0,0 +1,2 @@
+CREATE INDEX idx_task_kanban_id ON task (kanban_id);
+CREATE INDEX idx_task_title ON task (title);
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE INDEX idx_kanban_title ON kanban (title);
\ No newline at end of file
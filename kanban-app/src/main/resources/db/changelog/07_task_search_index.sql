@@ -0,0 +1,3 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_task_search_fts ON task USING GIN (to_tsvector('simple', title || ' ' || coalesce(description, '')));
+CREATE INDEX idx_task_title_trgm ON task USING GIN (title gin_trgm_ops);
\ No newline at end of file
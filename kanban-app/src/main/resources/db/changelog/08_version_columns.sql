@@ -0,0 +1,4 @@
+ALTER TABLE kanban
+ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE task
+ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
\ No newline at end of file
@@ -0,0 +1,10 @@
+ALTER TABLE task
+ADD COLUMN revision BIGINT DEFAULT 0 NOT NULL;
+CREATE INDEX idx_task_kanban_revision ON task (kanban_id, revision);
+CREATE TABLE task_tombstone (
+    id SERIAL PRIMARY KEY,
+    task_id INTEGER NOT NULL,
+    kanban_id INTEGER NOT NULL REFERENCES kanban(id) ON DELETE CASCADE,
+    revision BIGINT NOT NULL
+);
+CREATE INDEX idx_task_tombstone_kanban_revision ON task_tombstone (kanban_id, revision);
\ No newline at end of file
@@ -0,0 +1,4 @@
+ALTER TABLE task
+ADD COLUMN position BIGINT DEFAULT 0 NOT NULL;
+UPDATE task SET position = id * 65536;
+CREATE INDEX idx_task_kanban_status_position ON task (kanban_id, status, position);
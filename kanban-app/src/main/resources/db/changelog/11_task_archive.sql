@@ -0,0 +1,16 @@
+ALTER TABLE task
+ADD COLUMN done_at TIMESTAMP;
+UPDATE task SET done_at = CURRENT_TIMESTAMP WHERE status = 'DONE';
+CREATE INDEX idx_task_status_done_at ON task (status, done_at);
+CREATE TABLE task_archive (
+    id INTEGER PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    color VARCHAR(50),
+    status VARCHAR(20),
+    kanban_id INTEGER REFERENCES kanban(id) ON DELETE CASCADE,
+    position BIGINT DEFAULT 0 NOT NULL,
+    done_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_task_archive_kanban_id ON task_archive (kanban_id, id);
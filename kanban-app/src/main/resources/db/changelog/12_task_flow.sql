@@ -0,0 +1,26 @@
+CREATE TABLE task_status_transition (
+    id SERIAL PRIMARY KEY,
+    task_id INTEGER NOT NULL,
+    kanban_id INTEGER NOT NULL REFERENCES kanban(id) ON DELETE CASCADE,
+    from_status VARCHAR(20),
+    to_status VARCHAR(20),
+    transitioned_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_task_status_transition_task ON task_status_transition (task_id, id);
+CREATE INDEX idx_task_status_transition_kanban ON task_status_transition (kanban_id, transitioned_at);
+CREATE TABLE kanban_flow_daily (
+    kanban_id INTEGER NOT NULL REFERENCES kanban(id) ON DELETE CASCADE,
+    flow_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    arrived INTEGER DEFAULT 0 NOT NULL,
+    departed INTEGER DEFAULT 0 NOT NULL,
+    PRIMARY KEY (kanban_id, flow_date, status)
+);
+CREATE TABLE kanban_cycle_time_daily (
+    kanban_id INTEGER NOT NULL REFERENCES kanban(id) ON DELETE CASCADE,
+    flow_date DATE NOT NULL,
+    completed INTEGER DEFAULT 0 NOT NULL,
+    total_seconds BIGINT DEFAULT 0 NOT NULL,
+    max_seconds BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (kanban_id, flow_date)
+);
@@ -0,0 +1,4 @@
+INSERT INTO task_status_transition (task_id, kanban_id, from_status, to_status, transitioned_at)
+SELECT id, kanban_id, NULL, status, CAST(FORMATDATETIME(LOCALTIMESTAMP, 'yyyy-MM-dd HH:mm:ss.SSS', 'en', 'UTC') AS TIMESTAMP) FROM task WHERE kanban_id IS NOT NULL AND status IS NOT NULL;
+INSERT INTO kanban_flow_daily (kanban_id, flow_date, status, arrived, departed)
+SELECT kanban_id, CAST(FORMATDATETIME(LOCALTIMESTAMP, 'yyyy-MM-dd', 'en', 'UTC') AS DATE), status, COUNT(*), 0 FROM task WHERE kanban_id IS NOT NULL AND status IS NOT NULL GROUP BY kanban_id, status;
@@ -0,0 +1,175 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdmissionControlFilterTest {
+
+    AdmissionControlFilter filter;
+    AdaptiveConcurrencyLimit readLimit;
+    AdaptiveConcurrencyLimit writeLimit;
+    MeterRegistry meterRegistry;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        readLimit = new AdaptiveConcurrencyLimit(4, 2, 8, 100, 0.5);
+        writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 100, 0.5);
+        filter = new AdmissionControlFilter(readLimit, writeLimit, 2, Collections.singletonList("/kanbans/export"), meterRegistry);
+    }
+
+    @Test
+    public void whenWriteOverLimit_thenItIsRejectedRightAwayWithRetryAfter() throws Exception {
+        //given
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                try {
+                    //when
+                    filter.doFilter(new MockHttpServletRequest("PUT", "/api/tasks/2"), rejectedResponse, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/tasks/1"), new MockHttpServletResponse(), new MockFilterChain(servlet));
+
+        //then
+        assertEquals(503, rejectedResponse.getStatus());
+        assertEquals("2", rejectedResponse.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(AdmissionControlFilter.REJECTED_MESSAGE, rejectedResponse.getContentAsString());
+        assertEquals(1.0, requests("write", "accepted"), 0.0);
+        assertEquals(1.0, requests("write", "rejected"), 0.0);
+        assertEquals(0.0, meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_GAUGE).tag("type", "write").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void whenReadWhileWritesAreAtLimit_thenItIsAccepted() throws Exception {
+        //given
+        assertTrue(writeLimit.tryAcquire("127.0.0.1"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/kanbans/1"), response, new MockFilterChain());
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals(1.0, requests("read", "accepted"), 0.0);
+    }
+
+    @Test
+    public void whenRequestsSlowerThanLatencyTarget_thenLimitIsCutDownToMinimum() {
+        //when
+        for (int i = 0; i < 3; i++) {
+            assertTrue(readLimit.tryAcquire("client"));
+            readLimit.release("client", TimeUnit.MILLISECONDS.toNanos(150));
+        }
+
+        //then
+        assertEquals(2, readLimit.getLimit());
+    }
+
+    @Test
+    public void whenSlowRequestsCompleteWithinLatencyTarget_thenLimitIsCutOnlyOnce() {
+        //given
+        AtomicLong nanoTime = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(16, 1, 32, 100, 0.5, nanoTime::get);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limit.tryAcquire("client-" + i));
+        }
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            limit.release("client-" + i, TimeUnit.MILLISECONDS.toNanos(150));
+            nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int limitAfterSpike = limit.getLimit();
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(limit.tryAcquire("client"));
+        limit.release("client", TimeUnit.MILLISECONDS.toNanos(150));
+
+        //then
+        assertEquals(8, limitAfterSpike);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void whenStreamingRequestIsSlow_thenLimitIsNotCut() throws Exception {
+        //given
+        HttpServlet slowServlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                try {
+                    Thread.sleep(150);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/kanbans/export");
+        request.setContextPath("/api");
+
+        //when
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(slowServlet));
+
+        //then
+        assertEquals(4, readLimit.getLimit());
+        assertEquals(0, readLimit.getInFlight());
+    }
+
+    @Test
+    public void whenFastRequestsUseHalfOfLimit_thenLimitGrows() {
+        //given
+        assertTrue(readLimit.tryAcquire("client-1"));
+        assertTrue(readLimit.tryAcquire("client-2"));
+
+        //when
+        for (int i = 0; i < 20; i++) {
+            assertTrue(readLimit.tryAcquire("client-3"));
+            readLimit.release("client-3", TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        //then
+        assertTrue(readLimit.getLimit() > 4);
+    }
+
+    @Test
+    public void whenLimitIsBusy_thenClientGetsOnlyItsShareOfIt() {
+        //given
+        assertTrue(readLimit.tryAcquire("busy-client"));
+        assertTrue(readLimit.tryAcquire("busy-client"));
+        assertTrue(readLimit.tryAcquire("other-client"));
+
+        //when
+        boolean busyClientAccepted = readLimit.tryAcquire("busy-client");
+        boolean otherClientAccepted = readLimit.tryAcquire("other-client");
+
+        //then
+        assertFalse(busyClientAccepted);
+        assertTrue(otherClientAccepted);
+        assertFalse(readLimit.tryAcquire("third-client"));
+    }
+
+    private double requests(String type, String result) {
+        return meterRegistry.get(AdmissionControlFilter.REQUESTS_COUNTER).tags("type", type, "result", result).counter().count();
+    }
+}
@@ -0,0 +1,60 @@
+package com.wkrzywiec.medium.kanban.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class SamplingTurboFilterTest {
+
+    SamplingTurboFilter filter;
+    LoggerContext loggerContext;
+
+    @Before
+    public void init() {
+        loggerContext = new LoggerContext();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter = new SamplingTurboFilter();
+        filter.setLogger("com.wkrzywiec.medium.kanban.controller");
+        filter.setSampleRate(10);
+    }
+
+    @Test
+    public void when100InfoStatementsOfSampledLogger_thenOnly10AreLetThrough() {
+        //given
+        Logger logger = loggerContext.getLogger("com.wkrzywiec.medium.kanban.controller.KanbanController");
+
+        //when
+        long letThrough = IntStream.range(0, 100)
+                .mapToObj(i -> filter.decide(null, logger, Level.INFO, "Request {}", new Object[]{ i }, null))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        //then
+        assertEquals(10, letThrough);
+    }
+
+    @Test
+    public void whenWarnStatementOrOtherLogger_thenItIsNeverDropped() {
+        //given
+        Logger sampledLogger = loggerContext.getLogger("com.wkrzywiec.medium.kanban.controller.KanbanController");
+        Logger otherLogger = loggerContext.getLogger("com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor");
+
+        //when
+        long letThrough = IntStream.range(0, 100)
+                .mapToObj(i -> i % 2 == 0
+                        ? filter.decide(null, sampledLogger, Level.WARN, "Warning {}", new Object[]{ i }, null)
+                        : filter.decide(null, otherLogger, Level.INFO, "Info {}", new Object[]{ i }, null))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        //then
+        assertEquals(100, letThrough);
+    }
+}
@@ -0,0 +1,113 @@
+package com.wkrzywiec.medium.kanban.repository;
+
+import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EntityCacheEvictorTest {
+
+    EntityCacheEvictor entityCacheEvictor;
+    MeterRegistry meterRegistry;
+    MeterRegistry otherMeterRegistry;
+    @Mock
+    EntityManagerFactory entityManagerFactory;
+    @Mock
+    EntityManagerFactory otherEntityManagerFactory;
+    @Mock
+    SessionFactory otherSessionFactory;
+    @Mock
+    Cache cache;
+    @Mock
+    Cache otherCache;
+
+    @Before
+    public void init() {
+        CacheInvalidationBus invalidationBus = new InProcessCacheInvalidationBus();
+        meterRegistry = new SimpleMeterRegistry();
+        otherMeterRegistry = new SimpleMeterRegistry();
+        when(otherEntityManagerFactory.unwrap(SessionFactory.class)).thenReturn(otherSessionFactory);
+        when(otherSessionFactory.getCache()).thenReturn(otherCache);
+        entityCacheEvictor = new EntityCacheEvictor(entityManagerFactory, invalidationBus, meterRegistry);
+        new EntityCacheEvictor(otherEntityManagerFactory, invalidationBus, otherMeterRegistry);
+    }
+
+    @After
+    public void cleanUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void whenTaskInvalidated_thenOtherInstanceEvictsItWithItsKanbanTasks() {
+        //when
+        entityCacheEvictor.invalidateTask(5L, 2L);
+
+        //then
+        verify(otherCache).evictEntityData(Task.class, 5L);
+        verify(otherCache).evictEntityData(Kanban.class, 2L);
+        verify(otherCache).evictCollectionData(EntityCacheEvictor.KANBAN_TASKS_ROLE, 2L);
+        verify(otherCache).evictDefaultQueryRegion();
+        verifyZeroInteractions(entityManagerFactory, cache);
+        assertEquals(1.0, meterRegistry.get(EntityCacheEvictor.INVALIDATIONS_COUNTER).tag("direction", "published").counter().count(), 0.0);
+        assertEquals(1.0, otherMeterRegistry.get(EntityCacheEvictor.INVALIDATIONS_COUNTER).tag("direction", "received").counter().count(), 0.0);
+        assertEquals(1L, otherMeterRegistry.get(EntityCacheEvictor.INVALIDATION_LAG_TIMER).timer().count());
+    }
+
+    @Test
+    public void whenKanbanInvalidatedInTransaction_thenItIsEvictedByOtherInstanceOnlyAfterCommit() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        entityCacheEvictor.invalidateKanban(1L);
+        entityCacheEvictor.invalidateKanban(3L);
+        verifyZeroInteractions(otherCache);
+
+        //when
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        //then
+        verify(otherCache).evictEntityData(Kanban.class, 1L);
+        verify(otherCache).evictEntityData(Kanban.class, 3L);
+        verify(otherCache).evictDefaultQueryRegion();
+        assertEquals(1.0, otherMeterRegistry.get(EntityCacheEvictor.INVALIDATIONS_COUNTER).tag("direction", "received").counter().count(), 0.0);
+    }
+
+    @Test
+    public void whenTransactionRolledBack_thenNothingIsInvalidated() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        entityCacheEvictor.invalidateKanban(1L);
+
+        //when
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        //then
+        verify(otherCache, never()).evictEntityData(Kanban.class, 1L);
+        verify(otherCache, never()).evictDefaultQueryRegion();
+    }
+}
@@ -1,18 +1,44 @@
 package com.wkrzywiec.medium.kanban.service;
 
+import com.wkrzywiec.medium.kanban.model.BulkUpdateResult;
+import com.wkrzywiec.medium.kanban.model.CursorPage;
 import com.wkrzywiec.medium.kanban.model.Kanban;
+import com.wkrzywiec.medium.kanban.model.KanbanChanges;
+import com.wkrzywiec.medium.kanban.model.KanbanEvent;
+import com.wkrzywiec.medium.kanban.model.KanbanSummary;
+import com.wkrzywiec.medium.kanban.model.KanbanTaskCount;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.model.TaskStatusUpdateDTO;
+import com.wkrzywiec.medium.kanban.model.TaskTombstone;
+import com.wkrzywiec.medium.kanban.repository.EntityCacheEvictor;
 import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskTombstoneRepository;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -21,10 +47,20 @@ public class KanbanServiceTest {
     KanbanService kanbanService;
     @Mock
     KanbanRepository kanbanRepository;
+    @Mock
+    TaskRepository taskRepository;
+    @Mock
+    TaskTombstoneRepository taskTombstoneRepository;
+    @Mock
+    EntityCacheEvictor entityCacheEvictor;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    TaskFlowService taskFlowService;
 
     @Before
     public void init() {
-        kanbanService = new KanbanServiceImpl(kanbanRepository);
+        kanbanService = new KanbanServiceImpl(kanbanRepository, taskRepository, taskTombstoneRepository, entityCacheEvictor, eventPublisher, taskFlowService);
     }
 
     @Test
@@ -39,6 +75,165 @@ public class KanbanServiceTest {
         assertEquals(2, kanbans.size());
     }
 
+    @Test
+    public void whenMoreKanbansThanLimit_thenGetPageWithNextCursor() {
+        //given
+        when(kanbanRepository.findIdsByIdGreaterThan(0L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(0L, 1L, 2L));
+        when(kanbanRepository.findWithTasksByIdIn(Arrays.asList(0L, 1L)))
+                .thenReturn(createKanbanList(2));
+
+        //when
+        CursorPage<Kanban> page = kanbanService.getKanbanBoardsPage(null, 2);
+
+        //then
+        assertEquals(2, page.getItems().size());
+        assertEquals(Long.valueOf(1), CursorPage.decodeCursor(page.getNextCursor()));
+    }
+
+    @Test
+    public void whenLastPageRequested_thenGetPageWithoutNextCursor() {
+        //given
+        when(kanbanRepository.findIdsByIdGreaterThan(1L, PageRequest.of(0, 3)))
+                .thenReturn(Collections.singletonList(2L));
+        when(kanbanRepository.findWithTasksByIdIn(Collections.singletonList(2L)))
+                .thenReturn(createKanbanList(1));
+
+        //when
+        CursorPage<Kanban> page = kanbanService.getKanbanBoardsPage(CursorPage.encodeCursor(1L), 2);
+
+        //then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void whenTasksCountedByStatus_thenGetOneSummaryPerKanban() {
+        //given
+        when(kanbanRepository.countTasksByKanbanAndStatus())
+                .thenReturn(Arrays.asList(
+                        new KanbanTaskCount(1L, "Kanban 1", TaskStatus.TODO, 3),
+                        new KanbanTaskCount(1L, "Kanban 1", TaskStatus.DONE, 2),
+                        new KanbanTaskCount(2L, "Kanban 2", null, 0)));
+
+        //when
+        List<KanbanSummary> summaries = kanbanService.getKanbanSummaries();
+
+        //then
+        assertEquals(2, summaries.size());
+        assertEquals(new KanbanSummary(1L, "Kanban 1", 3, 0, 2), summaries.get(0));
+        assertEquals(new KanbanSummary(2L, "Kanban 2", 0, 0, 0), summaries.get(1));
+    }
+
+    @Test
+    public void whenKanbanNotChangedSinceRevision_thenGetEmptyChangesWithoutQueryingTasks() {
+        //given
+        when(kanbanRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        //when
+        KanbanChanges changes = kanbanService.getKanbanChanges(1L, 5L).get();
+
+        //then
+        assertEquals(new KanbanChanges(1L, 5L, new ArrayList<>(), new ArrayList<>()), changes);
+        verifyZeroInteractions(taskRepository, taskTombstoneRepository);
+    }
+
+    @Test
+    public void whenKanbanChangedSinceRevision_thenGetChangedAndDeletedTasks() {
+        //given
+        Task changedTask = new Task();
+        changedTask.setId(10L);
+        changedTask.setRevision(6L);
+        TaskTombstone deletedTask = new TaskTombstone(11L, 1L, 7L);
+        when(kanbanRepository.findVersionById(1L)).thenReturn(Optional.of(7L));
+        when(taskRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(1L, 5L))
+                .thenReturn(Collections.singletonList(changedTask));
+        when(taskTombstoneRepository.findByKanbanIdAndRevisionGreaterThanOrderByRevisionAsc(1L, 5L))
+                .thenReturn(Collections.singletonList(deletedTask));
+
+        //when
+        KanbanChanges changes = kanbanService.getKanbanChanges(1L, 5L).get();
+
+        //then
+        assertEquals(Long.valueOf(7L), changes.getRevision());
+        assertEquals(Collections.singletonList(changedTask), changes.getTasks());
+        assertEquals(Collections.singletonList(deletedTask), changes.getDeletedTasks());
+    }
+
+    @Test
+    public void whenKanbanNotInDatabase_thenGetNoChanges() {
+        //given
+        when(kanbanRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        //when
+        Optional<KanbanChanges> changes = kanbanService.getKanbanChanges(1L, 0L);
+
+        //then
+        assertFalse(changes.isPresent());
+    }
+
+    @Test
+    public void whenTaskAddedToKanban_thenOnlyTaskIsInsertedWithoutLoadingKanban() {
+        //given
+        when(kanbanRepository.existsById(1L)).thenReturn(true);
+        when(kanbanRepository.nextRevision(1L)).thenReturn(3L);
+        when(taskRepository.insertAll(eq(1L), anyList())).thenReturn(Collections.singletonList(10L));
+
+        //when
+        Task task = kanbanService.addNewTaskToKanban(1L, TaskDTO.builder().title("New Task").build()).get();
+
+        //then
+        assertEquals(Long.valueOf(10L), task.getId());
+        assertEquals(Long.valueOf(1L), task.getKanbanId());
+        assertEquals(Long.valueOf(3L), task.getRevision());
+        assertEquals("New Task", task.getTitle());
+        verify(kanbanRepository, never()).findById(1L);
+        verify(eventPublisher).publishEvent(KanbanEvent.tasksCreated(1L, 3L, Collections.singletonList(task)));
+    }
+
+    @Test
+    public void whenTaskAddedToNotExistingKanban_thenNoTaskIsInserted() {
+        //given
+        when(kanbanRepository.existsById(1L)).thenReturn(false);
+
+        //when
+        Optional<Task> task = kanbanService.addNewTaskToKanban(1L, TaskDTO.builder().title("New Task").build());
+
+        //then
+        assertFalse(task.isPresent());
+        verifyZeroInteractions(taskRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenNoTaskMatchesStatusUpdate_thenNothingIsUpdatedAndNoEventIsPublished() {
+        //given
+        TaskStatusUpdateDTO statusUpdateDTO = TaskStatusUpdateDTO.builder()
+                .fromStatus(TaskStatus.TODO)
+                .status(TaskStatus.DONE)
+                .build();
+        when(kanbanRepository.existsById(1L)).thenReturn(true);
+        when(kanbanRepository.nextRevision(1L)).thenReturn(3L);
+        when(taskRepository.findLastPosition(1L, TaskStatus.DONE)).thenReturn(Optional.of(Task.POSITION_GAP));
+        when(taskRepository.updateStatus(1L, null, TaskStatus.TODO, TaskStatus.DONE, 3L, 2 * Task.POSITION_GAP)).thenReturn(0);
+
+        //when
+        BulkUpdateResult result = kanbanService.updateTasksStatus(1L, statusUpdateDTO).get();
+
+        //then
+        assertEquals(new BulkUpdateResult(0, 3L), result);
+        verifyZeroInteractions(eventPublisher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenStatusUpdateHasNoTargetStatus_thenExceptionIsThrown() {
+        kanbanService.updateTasksStatus(1L, new TaskStatusUpdateDTO());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenCursorIsInvalid_thenExceptionIsThrown() {
+        kanbanService.getKanbanBoardsPage("not-a-cursor", 2);
+    }
+
     private void mockKanbanInDatabase(int kanbanCount) {
         when(kanbanRepository.findAll())
                 .thenReturn(createKanbanList(kanbanCount));
@@ -0,0 +1,91 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReactiveTaskServiceTest {
+
+    ReactiveTaskService reactiveTaskService;
+    @Mock
+    TaskRepository taskRepository;
+
+    @Before
+    public void init() {
+        reactiveTaskService = new ReactiveTaskServiceImpl(taskRepository, new ShardRouter(1, 1), Schedulers.immediate(), 2, 1000);
+    }
+
+    @Test
+    public void whenAllTasksStreamed_thenPagesAreReadUntilLastOne() {
+        //given
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))).thenReturn(tasks(1L, 2L));
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2))).thenReturn(tasks(3L, 4L));
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(4L, PageRequest.of(0, 2))).thenReturn(tasks(5L));
+
+        //when
+        StepVerifier.create(reactiveTaskService.getAllTasks().map(Task::getId))
+
+        //then
+                .expectNext(1L, 2L, 3L, 4L, 5L)
+                .verifyComplete();
+        verify(taskRepository, times(3)).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    public void whenClientRequestsOnlyFirstTask_thenOnlyFirstPageIsRead() {
+        //given
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))).thenReturn(tasks(1L, 2L));
+
+        //when
+        StepVerifier.create(reactiveTaskService.getAllTasks().map(Task::getId), 1)
+
+        //then
+                .expectNext(1L)
+                .thenCancel()
+                .verify();
+        verify(taskRepository, never()).findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    public void whenNoTaskWithId_thenGetEmptyResult() {
+        //given
+        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+
+        //when
+        StepVerifier.create(reactiveTaskService.getTaskById(1L))
+
+        //then
+                .verifyComplete();
+    }
+
+    private List<Task> tasks(Long... ids) {
+        return Arrays.stream(ids)
+                .map(id -> {
+                    Task task = new Task();
+                    task.setId(id);
+                    return task;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,101 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.CursorPage;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskMoveDTO;
+import com.wkrzywiec.medium.kanban.repository.ShardContext;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShardedTaskServiceTest {
+
+    ShardRouter shardRouter;
+    TaskService shardedTaskService;
+    @Mock
+    TaskService taskService;
+
+    @Before
+    public void init() {
+        shardRouter = new ShardRouter(2, 4);
+        shardedTaskService = new ShardedTaskService(taskService, shardRouter);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        shardRouter.destroy();
+    }
+
+    @Test
+    public void whenTasksPageRequested_thenPagesOfShardsAreMergedInOrderOfIds() {
+        //given
+        when(taskService.getTasksPage(null, 3)).thenAnswer(invocation -> ShardContext.getShard() == 0
+                ? new CursorPage<>(tasks(1L, 5L, 9L), CursorPage.encodeCursor(9L))
+                : new CursorPage<>(tasks(2L, 6L), null));
+
+        //when
+        CursorPage<Task> page = shardedTaskService.getTasksPage(null, 3);
+
+        //then
+        assertEquals(Arrays.asList(1L, 2L, 5L), page.getItems().stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals(CursorPage.encodeCursor(5L), page.getNextCursor());
+    }
+
+    @Test
+    public void whenTasksOfSameShardAreMoved_thenTheyAreMovedOnThatShard() {
+        //given
+        TaskMoveDTO taskMoveDTO = TaskMoveDTO.builder().kanbanId(2L).taskIds(Arrays.asList(6L, 10L)).build();
+        when(taskService.moveTasks(taskMoveDTO)).thenAnswer(invocation -> {
+            assertEquals(Integer.valueOf(1), ShardContext.getShard());
+            return Optional.empty();
+        });
+
+        //when
+        shardedTaskService.moveTasks(taskMoveDTO);
+
+        //then
+        verify(taskService).moveTasks(taskMoveDTO);
+        assertNull(ShardContext.getShard());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenTasksMovedToKanbanOnOtherShard_thenExceptionIsThrown() {
+        //given
+        TaskMoveDTO taskMoveDTO = TaskMoveDTO.builder().kanbanId(2L).taskIds(Arrays.asList(5L, 6L)).build();
+
+        try {
+            //when
+            shardedTaskService.moveTasks(taskMoveDTO);
+        } finally {
+            //then
+            verify(taskService, never()).moveTasks(any());
+        }
+    }
+
+    private List<Task> tasks(Long... ids) {
+        return Arrays.stream(ids)
+                .map(id -> {
+                    Task task = new Task();
+                    task.setId(id);
+                    return task;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,214 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.CumulativeFlowDay;
+import com.wkrzywiec.medium.kanban.model.CycleTimeDay;
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import com.wkrzywiec.medium.kanban.repository.KanbanRepository;
+import com.wkrzywiec.medium.kanban.repository.ShardRouter;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.ColumnState;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.CycleTimeTotal;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.FlowTotal;
+import com.wkrzywiec.medium.kanban.repository.TaskFlowRepository.Transition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TaskFlowServiceTest {
+
+    TaskFlowService taskFlowService;
+    @Mock
+    TaskFlowRepository taskFlowRepository;
+    @Mock
+    KanbanRepository kanbanRepository;
+
+    @Before
+    public void init() {
+        taskFlowService = new TaskFlowServiceImpl(taskFlowRepository, kanbanRepository, new ShardRouter(1, 1));
+    }
+
+    @Test
+    public void whenTaskStatusChanged_thenTransitionAndFlowsBetweenColumnsAreRecorded() {
+        //given
+        Task task = task(5L, 1L, TaskStatus.INPROGRESS);
+        when(taskFlowRepository.findLatestStates(Collections.singletonList(5L)))
+                .thenReturn(Collections.singletonMap(5L, new ColumnState(1L, TaskStatus.TODO)));
+
+        //when
+        taskFlowService.recordTasks(Collections.singletonList(task));
+
+        //then
+        List<Transition> transitions = captureTransitions();
+        assertEquals(1, transitions.size());
+        assertEquals(TaskStatus.TODO, transitions.get(0).getFromStatus());
+        assertEquals(TaskStatus.INPROGRESS, transitions.get(0).getToStatus());
+        Map<TaskStatus, FlowTotal> flows = captureFlows();
+        assertEquals(1, flows.get(TaskStatus.TODO).getDeparted());
+        assertEquals(1, flows.get(TaskStatus.INPROGRESS).getArrived());
+        verify(taskFlowRepository, never()).addCycleTimes(anyList());
+    }
+
+    @Test
+    public void whenTaskMovedToOtherKanban_thenItDepartsFromOneAndArrivesOnOther() {
+        //given
+        Task task = task(5L, 2L, TaskStatus.TODO);
+        when(taskFlowRepository.findLatestStates(Collections.singletonList(5L)))
+                .thenReturn(Collections.singletonMap(5L, new ColumnState(1L, TaskStatus.TODO)));
+
+        //when
+        taskFlowService.recordTasks(Collections.singletonList(task));
+
+        //then
+        List<Transition> transitions = captureTransitions();
+        assertEquals(2, transitions.size());
+        assertEquals(Long.valueOf(1L), transitions.get(0).getKanbanId());
+        assertEquals(null, transitions.get(0).getToStatus());
+        assertEquals(Long.valueOf(2L), transitions.get(1).getKanbanId());
+        assertEquals(null, transitions.get(1).getFromStatus());
+    }
+
+    @Test
+    public void whenTaskStatusNotChanged_thenNothingIsRecorded() {
+        //given
+        Task task = task(5L, 1L, TaskStatus.TODO);
+        when(taskFlowRepository.findLatestStates(Collections.singletonList(5L)))
+                .thenReturn(Collections.singletonMap(5L, new ColumnState(1L, TaskStatus.TODO)));
+
+        //when
+        taskFlowService.recordTasks(Collections.singletonList(task));
+
+        //then
+        verify(taskFlowRepository, never()).insertTransitions(anyList());
+        verify(taskFlowRepository, never()).addFlows(anyList());
+    }
+
+    @Test
+    public void whenTaskIsDone_thenCycleTimeSinceWorkStartIsRecorded() {
+        //given
+        Task task = task(5L, 1L, TaskStatus.DONE);
+        when(taskFlowRepository.findLatestStates(Collections.singletonList(5L)))
+                .thenReturn(Collections.singletonMap(5L, new ColumnState(1L, TaskStatus.INPROGRESS)));
+        when(taskFlowRepository.findWorkStarts(Collections.singletonList(5L), TaskStatus.INPROGRESS))
+                .thenReturn(Collections.singletonMap(5L, Instant.now().minusSeconds(3600)));
+
+        //when
+        taskFlowService.recordTasks(Collections.singletonList(task));
+
+        //then
+        ArgumentCaptor<List<CycleTimeTotal>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskFlowRepository).addCycleTimes(captor.capture());
+        CycleTimeTotal cycleTime = captor.getValue().get(0);
+        assertEquals(1, cycleTime.getCompleted());
+        assertTrue(cycleTime.getTotalSeconds() >= 3600);
+        assertEquals(cycleTime.getTotalSeconds(), cycleTime.getMaxSeconds());
+    }
+
+    @Test
+    public void whenCumulativeFlowRequested_thenEachDayHasTasksInColumnsAtItsEnd() {
+        //given
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 3);
+        when(kanbanRepository.existsById(1L)).thenReturn(true);
+        Map<TaskStatus, Long> before = new HashMap<>();
+        before.put(TaskStatus.TODO, 4L);
+        when(taskFlowRepository.sumFlowsBefore(1L, from)).thenReturn(before);
+        when(taskFlowRepository.findFlowsBetween(1L, from, to)).thenReturn(Arrays.asList(
+                new FlowTotal(1L, from, TaskStatus.TODO, 0, 2),
+                new FlowTotal(1L, from, TaskStatus.INPROGRESS, 2, 0),
+                new FlowTotal(1L, to, TaskStatus.INPROGRESS, 0, 1),
+                new FlowTotal(1L, to, TaskStatus.DONE, 1, 0)));
+
+        //when
+        List<CumulativeFlowDay> days = taskFlowService.getCumulativeFlow(1L, from, to).get();
+
+        //then
+        assertEquals(Arrays.asList(
+                new CumulativeFlowDay(from, 2, 2, 0),
+                new CumulativeFlowDay(from.plusDays(1), 2, 2, 0),
+                new CumulativeFlowDay(to, 2, 1, 1)), days);
+    }
+
+    @Test
+    public void whenCycleTimeRequested_thenDaysWithoutCompletedTasksAreEmpty() {
+        //given
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 2);
+        when(kanbanRepository.existsById(1L)).thenReturn(true);
+        when(taskFlowRepository.findCycleTimesBetween(1L, from, to))
+                .thenReturn(Collections.singletonList(new CycleTimeTotal(1L, to, 2, 300, 200)));
+
+        //when
+        List<CycleTimeDay> days = taskFlowService.getCycleTime(1L, from, to).get();
+
+        //then
+        assertEquals(Arrays.asList(new CycleTimeDay(from, 0, 0, 0), new CycleTimeDay(to, 2, 150, 200)), days);
+    }
+
+    @Test
+    public void whenKanbanNotInDatabase_thenGetNoReport() {
+        //given
+        when(kanbanRepository.existsById(1L)).thenReturn(false);
+
+        //when
+        Optional<List<CumulativeFlowDay>> days = taskFlowService.getCumulativeFlow(1L, null, null);
+
+        //then
+        assertFalse(days.isPresent());
+        verify(taskFlowRepository, never()).findFlowsBetween(any(), any(), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenReportStartsAfterItEnds_thenExceptionIsThrown() {
+        taskFlowService.getThroughput(1L, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenReportIsTooLong_thenExceptionIsThrown() {
+        LocalDate to = LocalDate.of(2026, 3, 1);
+        taskFlowService.getThroughput(1L, to.minusDays(TaskFlowService.MAX_REPORT_DAYS), to);
+    }
+
+    private List<Transition> captureTransitions() {
+        ArgumentCaptor<List<Transition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskFlowRepository).insertTransitions(captor.capture());
+        return captor.getValue();
+    }
+
+    private Map<TaskStatus, FlowTotal> captureFlows() {
+        ArgumentCaptor<List<FlowTotal>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskFlowRepository).addFlows(captor.capture());
+        return captor.getValue().stream().collect(Collectors.toMap(FlowTotal::getStatus, flow -> flow));
+    }
+
+    private static Task task(Long id, Long kanbanId, TaskStatus status) {
+        Task task = new Task();
+        task.setId(id);
+        task.setKanbanId(kanbanId);
+        task.setStatus(status);
+        return task;
+    }
+}
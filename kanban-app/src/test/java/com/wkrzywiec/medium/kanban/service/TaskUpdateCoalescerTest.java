@@ -0,0 +1,167 @@
+package com.wkrzywiec.medium.kanban.service;
+
+import com.wkrzywiec.medium.kanban.model.Task;
+import com.wkrzywiec.medium.kanban.model.TaskDTO;
+import com.wkrzywiec.medium.kanban.model.TaskStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TaskUpdateCoalescerTest {
+
+    TaskUpdateCoalescerImpl taskUpdateCoalescer;
+    MeterRegistry meterRegistry;
+    @Mock
+    TaskService taskService;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskUpdateCoalescer = new TaskUpdateCoalescerImpl(taskService, meterRegistry, true, 500);
+    }
+
+    @Test
+    public void whenTaskUpdatedTwice_thenChangesAreWrittenOnce() {
+        //given
+        TaskDTO mergedTaskDTO = TaskDTO.builder().title("New Title").color("#7afcff").status(TaskStatus.DONE).build();
+        when(taskService.updateTasks(Collections.singletonMap(1L, mergedTaskDTO))).thenReturn(tasks(1L));
+        taskUpdateCoalescer.submit(1L, TaskDTO.builder().title("Old Title").status(TaskStatus.DONE).build());
+        taskUpdateCoalescer.submit(1L, TaskDTO.builder().title("New Title").color("#7afcff").build());
+
+        //when
+        taskUpdateCoalescer.flush();
+
+        //then
+        verify(taskService).updateTasks(Collections.singletonMap(1L, mergedTaskDTO));
+        assertEquals(2.0, meterRegistry.get(TaskUpdateCoalescer.RATIO_GAUGE).gauge().value(), 0.0);
+        assertEquals(0.0, meterRegistry.get(TaskUpdateCoalescer.PENDING_GAUGE).gauge().value(), 0.0);
+    }
+
+    @Test
+    public void whenBatchWriteFails_thenTasksAreWrittenOneByOne() {
+        //given
+        TaskDTO taskDTO = TaskDTO.builder().title("Title").build();
+        Map<Long, TaskDTO> batch = new HashMap<>();
+        batch.put(1L, taskDTO);
+        batch.put(2L, taskDTO);
+        when(taskService.updateTasks(batch)).thenThrow(new IllegalStateException("Broken update"));
+        when(taskService.updateTasks(Collections.singletonMap(1L, taskDTO))).thenThrow(new IllegalStateException("Broken update"));
+        when(taskService.updateTasks(Collections.singletonMap(2L, taskDTO))).thenReturn(tasks(2L));
+        taskUpdateCoalescer.submit(1L, taskDTO);
+        taskUpdateCoalescer.submit(2L, taskDTO);
+
+        //when
+        taskUpdateCoalescer.flush();
+
+        //then
+        verify(taskService).updateTasks(Collections.singletonMap(2L, taskDTO));
+        assertEquals(1.0, meterRegistry.get(TaskUpdateCoalescer.WRITES_COUNTER).counter().count(), 0.0);
+        assertEquals(1.0, meterRegistry.get(TaskUpdateCoalescer.PENDING_GAUGE).gauge().value(), 0.0);
+    }
+
+    @Test
+    public void whenTaskWriteFails_thenItIsRetriedWithNextFlush() {
+        //given
+        TaskDTO taskDTO = TaskDTO.builder().title("Title").build();
+        when(taskService.updateTasks(Collections.singletonMap(1L, taskDTO)))
+                .thenThrow(new IllegalStateException("Database is down"))
+                .thenReturn(tasks(1L));
+        taskUpdateCoalescer.submit(1L, taskDTO);
+        taskUpdateCoalescer.flush();
+
+        //when
+        taskUpdateCoalescer.flush();
+
+        //then
+        verify(taskService, times(2)).updateTasks(Collections.singletonMap(1L, taskDTO));
+        assertEquals(1.0, meterRegistry.get(TaskUpdateCoalescer.WRITES_COUNTER).counter().count(), 0.0);
+        assertEquals(0.0, meterRegistry.get(TaskUpdateCoalescer.PENDING_GAUGE).gauge().value(), 0.0);
+    }
+
+    @Test
+    public void whenTaskUpdatedWhileBeingWritten_thenNewChangesStayPending() {
+        //given
+        TaskDTO taskDTO = TaskDTO.builder().title("Title").build();
+        TaskDTO mergedTaskDTO = TaskDTO.builder().title("Title").color("#7afcff").build();
+        when(taskService.updateTasks(Collections.singletonMap(1L, taskDTO))).thenAnswer(invocation -> {
+            assertEquals(1.0, meterRegistry.get(TaskUpdateCoalescer.PENDING_GAUGE).gauge().value(), 0.0);
+            taskUpdateCoalescer.submit(1L, TaskDTO.builder().color("#7afcff").build());
+            return tasks(1L);
+        });
+        when(taskService.updateTasks(Collections.singletonMap(1L, mergedTaskDTO))).thenReturn(tasks(1L));
+        taskUpdateCoalescer.submit(1L, taskDTO);
+
+        //when
+        taskUpdateCoalescer.flush();
+        double pendingAfterFirstFlush = meterRegistry.get(TaskUpdateCoalescer.PENDING_GAUGE).gauge().value();
+        taskUpdateCoalescer.flush();
+
+        //then
+        assertEquals(1.0, pendingAfterFirstFlush, 0.0);
+        verify(taskService).updateTasks(Collections.singletonMap(1L, mergedTaskDTO));
+        assertEquals(0.0, meterRegistry.get(TaskUpdateCoalescer.PENDING_GAUGE).gauge().value(), 0.0);
+    }
+
+    @Test
+    public void whenAppShutsDown_thenPendingUpdatesAreWrittenAndNewOnesAreNotQueued() {
+        //given
+        TaskDTO taskDTO = TaskDTO.builder().title("Title").build();
+        when(taskService.updateTasks(anyMap())).thenReturn(tasks(1L));
+        taskUpdateCoalescer.submit(1L, taskDTO);
+
+        //when
+        taskUpdateCoalescer.onApplicationEvent(new ContextClosedEvent(new StaticApplicationContext()));
+        Optional<TaskDTO> pendingTaskDTO = taskUpdateCoalescer.submit(2L, taskDTO);
+
+        //then
+        verify(taskService).updateTasks(Collections.singletonMap(1L, taskDTO));
+        assertFalse(pendingTaskDTO.isPresent());
+    }
+
+    @Test
+    public void whenCoalescingDisabled_thenUpdateIsNotQueued() {
+        //given
+        taskUpdateCoalescer = new TaskUpdateCoalescerImpl(taskService, new SimpleMeterRegistry(), false, 500);
+
+        //when
+        Optional<TaskDTO> pendingTaskDTO = taskUpdateCoalescer.submit(1L, TaskDTO.builder().title("Title").build());
+        taskUpdateCoalescer.flush();
+
+        //then
+        assertFalse(pendingTaskDTO.isPresent());
+        verifyZeroInteractions(taskService);
+    }
+
+    private List<Task> tasks(Long... ids) {
+        return Arrays.stream(ids)
+                .map(id -> {
+                    Task task = new Task();
+                    task.setId(id);
+                    return task;
+                })
+                .collect(Collectors.toList());
+    }
+}
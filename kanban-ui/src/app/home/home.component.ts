@@ -1,5 +1,6 @@
 import { Component, OnInit } from '@angular/core';
 import { Kanban } from '../model/kanban/kanban';
+import { KanbanSummary } from '../model/kanban-summary/kanban-summary';
 import { KanbanService } from '../service/kanban-service.service';
 import { MatDialog, MatDialogConfig } from '@angular/material';
 import { KanbanDialogComponent } from '../kanban-dialog/kanban-dialog.component';
@@ -11,7 +12,7 @@ import { KanbanDialogComponent } from '../kanban-dialog/kanban-dialog.component'
 })
 export class HomeComponent implements OnInit {
 
-  kanbanList: Kanban[];
+  kanbanList: KanbanSummary[];
 
   constructor(
     private kanbanService: KanbanService,
@@ -35,7 +36,7 @@ export class HomeComponent implements OnInit {
 
   private retrieveAllKanbanBoards(): void {
     console.log('Retrieving all Kanban boards');
-    this.kanbanService.retrieveAllKanbanBoards().subscribe(
+    this.kanbanService.retrieveKanbanSummaries().subscribe(
       response => {
         console.log('Kanban boards retrieved successfully:', response);
         this.kanbanList = response;
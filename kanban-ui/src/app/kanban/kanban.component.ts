@@ -1,24 +1,32 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { KanbanService } from '../service/kanban-service.service';
 import { ActivatedRoute } from '@angular/router';
 import { Kanban } from '../model/kanban/kanban';
+import { KanbanChanges } from '../model/kanban-changes/kanban-changes';
+import { KanbanEvent } from '../model/kanban-event/kanban-event';
 import { Task } from '../model/task/task';
 import { CdkDragDrop, moveItemInArray, transferArrayItem } from '@angular/cdk/drag-drop';
 import { MatDialog, MatDialogConfig } from '@angular/material';
 import { TaskDialogComponent } from '../task-dialog/task-dialog.component';
 import { TaskService } from '../service/task.service';
+import { Subscription } from 'rxjs';
 
 @Component({
   selector: 'app-kanban',
   templateUrl: './kanban.component.html',
   styleUrls: ['./kanban.component.css']
 })
-export class KanbanComponent implements OnInit {
+export class KanbanComponent implements OnInit, OnDestroy {
 
   kanban: Kanban;
   todos: Task[] = [];
   inprogress: Task[] = [];
   dones: Task[] = [];
+  private events: Subscription;
+  private lastRevision: number;
+  private catchingUp = false;
+  private catchUpAgain = false;
+  private bufferedEvents: KanbanEvent[] = [];
 
   constructor(
     private kanbanService: KanbanService,
@@ -30,20 +38,30 @@ export class KanbanComponent implements OnInit {
   ngOnInit() {
     console.log('KanbanComponent initialized');
     this.getKanban();
+    this.watchKanbanEvents();
   }
 
-  drop(event: CdkDragDrop<string[]>) {
+  ngOnDestroy() {
+    if (this.events) {
+      this.events.unsubscribe();
+    }
+  }
+
+  drop(event: CdkDragDrop<Task[]>) {
     console.log('Drop event:', event);
     if (event.previousContainer === event.container) {
+      if (event.previousIndex === event.currentIndex) {
+        return;
+      }
       moveItemInArray(event.container.data, event.previousIndex, event.currentIndex);
     } else {
-      console.log('Updating task status after drag and drop');
-      this.updateTaskStatusAfterDragDrop(event);
       transferArrayItem(event.previousContainer.data,
         event.container.data,
         event.previousIndex,
         event.currentIndex);
     }
+    console.log('Updating task position after drag and drop');
+    this.updateTaskPositionAfterDragDrop(event);
   }
 
   openDialogForNewTask(): void {
@@ -74,7 +92,9 @@ export class KanbanComponent implements OnInit {
       response => {
         console.log('Kanban retrieved successfully:', response);
         this.kanban = response;
+        this.lastRevision = response.version;
         this.splitTasksByStatus(response);
+        this.catchUp();
       },
       error => {
         console.error('Error retrieving Kanban:', error);
@@ -82,46 +102,106 @@ export class KanbanComponent implements OnInit {
     );
   }
 
+  private watchKanbanEvents(): void {
+    const id = this.route.snapshot.paramMap.get('id');
+    this.events = this.kanbanService.watchKanbanEvents(id).subscribe(
+      event => this.applyKanbanEvent(event),
+      error => {
+        console.error('Error receiving Kanban events:', error);
+      }
+    );
+  }
+
+  // events missed before the board loaded or while reconnecting are read from the change feed
+  private applyKanbanEvent(event: KanbanEvent): void {
+    console.log('Kanban event received:', event);
+    if (!this.kanban) {
+      return;
+    }
+    if (event.type === 'subscribed') {
+      this.catchUp();
+    } else if (this.catchingUp) {
+      this.bufferedEvents.push(event);
+    } else if (event.revision > this.lastRevision) {
+      this.applyTaskChanges(event);
+    }
+  }
+
+  private catchUp(): void {
+    if (this.catchingUp) {
+      this.catchUpAgain = true;
+      return;
+    }
+    this.catchingUp = true;
+    this.kanbanService.retrieveKanbanChanges(String(this.kanban.id), this.lastRevision).subscribe(
+      response => {
+        console.log('Kanban changes retrieved successfully:', response);
+        this.applyTaskChanges(response);
+        this.finishCatchUp();
+      },
+      error => {
+        console.error('Error retrieving Kanban changes:', error);
+        this.finishCatchUp();
+        this.getKanban();
+      }
+    );
+  }
+
+  private finishCatchUp(): void {
+    const events = this.bufferedEvents;
+    this.bufferedEvents = [];
+    this.catchingUp = false;
+    events.filter(event => event.revision > this.lastRevision)
+      .forEach(event => this.applyTaskChanges(event));
+    if (this.catchUpAgain) {
+      this.catchUpAgain = false;
+      this.catchUp();
+    }
+  }
+
+  private applyTaskChanges(changes: KanbanEvent | KanbanChanges): void {
+    const changedIds = changes.tasks.map(t => t.id)
+      .concat(changes.deletedTasks.map(t => t.taskId));
+    this.kanban.tasks = this.kanban.tasks
+      .filter(t => changedIds.indexOf(t.id) < 0)
+      .concat(changes.tasks);
+    this.lastRevision = Math.max(this.lastRevision, changes.revision);
+    this.splitTasksByStatus(this.kanban);
+  }
+
   private splitTasksByStatus(kanban: Kanban): void {
     console.log('Splitting tasks by status');
+    kanban.tasks.sort((a, b) => a.position - b.position);
     this.todos = kanban.tasks.filter(t=>t.status==='TODO');
     this.inprogress = kanban.tasks.filter(t=>t.status==='INPROGRESS');
     this.dones = kanban.tasks.filter(t=>t.status==='DONE');
   }
 
-  private updateTaskStatusAfterDragDrop(event: CdkDragDrop<string[], string[]>) {
-    console.log('Updating task status after drag and drop:', event);
+  private updateTaskPositionAfterDragDrop(event: CdkDragDrop<Task[]>) {
+    console.log('Updating task position after drag and drop:', event);
     let taskId = event.item.element.nativeElement.id;
-    let containerId = event.container.id;
+    let status = this.statusOfContainer(event.container.id);
+    let afterTask = event.currentIndex > 0 ? event.container.data[event.currentIndex - 1] : null;
 
-    this.taskService.getTaskById(taskId).subscribe(
+    this.taskService.moveTaskPosition(taskId, status, afterTask ? afterTask.id : null).subscribe(
       response => {
-        console.log('Task retrieved for update:', response);
-        this.updateTaskStatus(response, containerId);
+        console.log('Task position updated successfully:', response);
       },
       error => {
-        console.error('Error retrieving task for update:', error);
+        console.error('Error updating task position:', error);
+        this.getKanban();
       }
     );
   }
 
-  private updateTaskStatus(task: Task, containerId: string): void {
-    console.log('Updating task status:', task, containerId);
+  private statusOfContainer(containerId: string): String {
     if (containerId === 'todo'){
-      task.status = 'TODO'
+      return 'TODO';
     } else if (containerId === 'inpro'){
-      task.status = 'INPROGRESS'
+      return 'INPROGRESS';
     } else {
-      task.status = 'DONE'
+      return 'DONE';
     }
-    this.taskService.updateTask(task).subscribe(
-      () => {
-        console.log('Task status updated successfully');
-      },
-      error => {
-        console.error('Error updating task status:', error);
-      }
-    );
   }
 
   private openDialog(title: string, task: Task): void {
@@ -0,0 +1,7 @@
+import { KanbanChanges } from './kanban-changes';
+
+describe('KanbanChanges', () => {
+  it('should create an instance', () => {
+    expect(new KanbanChanges()).toBeTruthy();
+  });
+});
@@ -0,0 +1,9 @@
+import { Task } from '../task/task';
+
+export class KanbanChanges {
+
+  kanbanId: number;
+  revision: number;
+  tasks: Task[];
+  deletedTasks: { taskId: number, kanbanId: number, revision: number }[];
+}
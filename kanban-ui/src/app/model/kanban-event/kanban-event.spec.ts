@@ -0,0 +1,7 @@
+import { KanbanEvent } from './kanban-event';
+
+describe('KanbanEvent', () => {
+  it('should create an instance', () => {
+    expect(new KanbanEvent()).toBeTruthy();
+  });
+});
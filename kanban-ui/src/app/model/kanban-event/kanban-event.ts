@@ -0,0 +1,10 @@
+import { Task } from '../task/task';
+
+export class KanbanEvent {
+
+  type: string;
+  kanbanId: number;
+  revision: number;
+  tasks: Task[];
+  deletedTasks: { taskId: number, kanbanId: number, revision: number }[];
+}
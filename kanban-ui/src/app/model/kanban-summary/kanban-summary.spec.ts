@@ -0,0 +1,7 @@
+import { KanbanSummary } from './kanban-summary';
+
+describe('KanbanSummary', () => {
+  it('should create an instance', () => {
+    expect(new KanbanSummary()).toBeTruthy();
+  });
+});
@@ -0,0 +1,8 @@
+export class KanbanSummary {
+
+  id: number;
+  title: string;
+  todoCount: number;
+  inProgressCount: number;
+  doneCount: number;
+}
@@ -5,4 +5,5 @@ export class Kanban {
   id: number;
   title: string;
   tasks: Task[];
+  version: number;
 }
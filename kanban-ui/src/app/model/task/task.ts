@@ -5,4 +5,5 @@ export class Task {
     description: String;
     color: String;
     status: String;
+    position: number;
 }
@@ -1,7 +1,10 @@
-import { Injectable } from '@angular/core';
+import { Injectable, NgZone } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { Kanban } from '../model/kanban/kanban';
+import { KanbanChanges } from '../model/kanban-changes/kanban-changes';
+import { KanbanEvent } from '../model/kanban-event/kanban-event';
+import { KanbanSummary } from '../model/kanban-summary/kanban-summary';
 import { Task } from '../model/task/task';
 import { environment } from 'src/environments/environment';
 
@@ -12,18 +15,43 @@ export class KanbanService {
 
   private kanbanAppUrl = environment.kanbanAppUrl;
 
-  constructor(private http: HttpClient) { }
+  // 'subscribed' is sent on every (re)connect with the board revision the stream starts after
+  private kanbanEventTypes = ['subscribed', 'TASK_CREATED', 'TASK_UPDATED', 'TASK_MOVED', 'TASK_DELETED'];
+
+  constructor(private http: HttpClient, private zone: NgZone) { }
 
   retrieveAllKanbanBoards(): Observable<Kanban[]> {
     console.log('Retrieving all Kanban boards');
     return this.http.get<Kanban[]>(this.kanbanAppUrl + '/kanbans/');
   }
 
+  retrieveKanbanSummaries(): Observable<KanbanSummary[]> {
+    console.log('Retrieving Kanban board summaries');
+    return this.http.get<KanbanSummary[]>(this.kanbanAppUrl + '/kanbans/summary');
+  }
+
   retrieveKanbanById(id: String): Observable<Kanban> {
     console.log('Retrieving Kanban by ID:', id);
     return this.http.get<Kanban>(this.kanbanAppUrl + '/kanbans/' + id);
   }
 
+  retrieveKanbanChanges(id: String, since: number): Observable<KanbanChanges> {
+    console.log('Retrieving changes of Kanban with ID:', id, 'since revision:', since);
+    return this.http.get<KanbanChanges>(this.kanbanAppUrl + '/kanbans/' + id + '/changes', { params: { since: String(since) } });
+  }
+
+  watchKanbanEvents(id: String): Observable<KanbanEvent> {
+    console.log('Subscribing to events of Kanban with ID:', id);
+    return new Observable<KanbanEvent>(observer => {
+      const eventSource = new EventSource(this.kanbanAppUrl + '/kanbans/' + id + '/events');
+      const listener = (event: MessageEvent) => this.zone.run(() =>
+        observer.next(Object.assign(JSON.parse(event.data), { type: event.type })));
+      this.kanbanEventTypes.forEach(type => eventSource.addEventListener(type, listener));
+      eventSource.onerror = error => console.warn('Kanban events connection interrupted, reconnecting:', error);
+      return () => eventSource.close();
+    });
+  }
+
   saveNewKanban(title: string): Observable<string> {
     console.log('Saving new Kanban with title:', title);
     const headers = new HttpHeaders({ 'Content-Type': 'application/json' });
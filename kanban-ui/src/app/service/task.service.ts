@@ -24,6 +24,17 @@ export class TaskService {
     );
   }
 
+  moveTaskPosition(id: string, status: String, afterTaskId: number): Observable<Task> {
+    console.log('Moving task:', id, status, afterTaskId);
+    const headers = new HttpHeaders({ 'Content-Type': 'application/json' });
+    const options = { headers: headers };
+    return this.http.put<Task>(
+      this.kanbanAppUrl + '/tasks/' + id + '/position',
+      { status: status, afterTaskId: afterTaskId },
+      options
+    );
+  }
+
   getTaskById(id: string): Observable<Task> {
     console.log('Retrieving task by ID:', id);
     return this.http.get<Task>(this.kanbanAppUrl + '/tasks/' + id);